@@ -0,0 +1,19 @@
+package com.premiumminds.dbeaver.vault;
+
+public enum AuthMethod {
+
+    TOKEN("Token"),
+    APPROLE("AppRole"),
+    JWT("JWT"),
+    USERPASS("Userpass");
+
+    private final String text;
+
+    AuthMethod(String text){
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
@@ -1,5 +1,89 @@
 package com.premiumminds.dbeaver.vault;
 
-public record CacheKey(String address, String secret, SecretType secretType) {
+import java.util.Locale;
+import java.util.stream.Collectors;
 
-}
\ No newline at end of file
+import com.premiumminds.vault.client.VaultAddresses;
+
+/**
+ * Identifies cached credentials. Everything that changes what Vault returns, or what is extracted from it, is part of
+ * the key, in a canonical form so equivalent settings share one entry.
+ *
+ * @param usernameKey null for secret types that do not use it
+ * @param passwordKey null for secret types that do not use it
+ * @param tokenIdentity how the Vault token is obtained, since different tokens may see different secrets
+ */
+public record CacheKey(
+        String address,
+        String namespace,
+        String secret,
+        SecretType secretType,
+        String usernameKey,
+        String passwordKey,
+        String tokenIdentity) {
+
+    static CacheKey of(
+            String address,
+            String namespace,
+            String secret,
+            SecretType secretType,
+            String usernameKey,
+            String passwordKey,
+            String tokenIdentity)
+    {
+        final var kv = secretType == SecretType.KV1 || secretType == SecretType.KV2;
+        return new CacheKey(
+                canonicalAddress(address),
+                trimSlashes(namespace),
+                trimSlashes(secret),
+                secretType,
+                kv ? usernameKey : null,
+                kv ? passwordKey : null,
+                tokenIdentity);
+    }
+
+    /**
+     * The nodes of a multi-node address are sorted, so the key does not depend on which node is preferred.
+     */
+    private static String canonicalAddress(String addresses) {
+        return VaultAddresses.parse(addresses).stream()
+                .map(CacheKey::canonicalNode)
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(","));
+    }
+
+    private static String canonicalNode(String address) {
+        var canonical = address.trim();
+        while (canonical.endsWith("/") && !canonical.endsWith("://")) {
+            canonical = canonical.substring(0, canonical.length() - 1);
+        }
+        // scheme and host are case insensitive, a unix socket path is not
+        final var schemeEnd = canonical.indexOf("://");
+        if (schemeEnd < 0) {
+            return canonical;
+        }
+        final var scheme = canonical.substring(0, schemeEnd).toLowerCase(Locale.ROOT);
+        if (scheme.equals("unix")) {
+            return scheme + canonical.substring(schemeEnd);
+        }
+        final var pathStart = canonical.indexOf('/', schemeEnd + 3);
+        final var authority = pathStart < 0 ? canonical.substring(schemeEnd + 3) : canonical.substring(schemeEnd + 3, pathStart);
+        return scheme + "://" + authority.toLowerCase(Locale.ROOT) + (pathStart < 0 ? "" : canonical.substring(pathStart));
+    }
+
+    private static String trimSlashes(String value) {
+        if (value == null) {
+            return null;
+        }
+        var start = 0;
+        var end = value.length();
+        while (start < end && (value.charAt(start) == '/' || Character.isWhitespace(value.charAt(start)))) {
+            start++;
+        }
+        while (end > start && (value.charAt(end - 1) == '/' || Character.isWhitespace(value.charAt(end - 1)))) {
+            end--;
+        }
+        return start == end ? null : value.substring(start, end);
+    }
+}
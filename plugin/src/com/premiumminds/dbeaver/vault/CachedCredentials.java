@@ -0,0 +1,87 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import com.premiumminds.vault.client.Credentials;
+import com.premiumminds.vault.client.Lease;
+import com.premiumminds.vault.client.Rotation;
+
+/**
+ * @param expiresAt when the lease of the credentials expires, null if they have none
+ * @param rotatesAt when Vault is expected to rotate static credentials, null if they are not rotated
+ */
+record CachedCredentials(Credentials credentials, Instant fetchedAt, Instant expiresAt, Instant rotatesAt, SecretSource source) {
+
+    enum Freshness {
+        FRESH,
+        /** usable, but new credentials should be requested in the background */
+        STALE,
+        EXPIRED
+    }
+
+    static CachedCredentials of(Credentials credentials, Instant fetchedAt, SecretSource source) {
+        if (credentials instanceof Lease lease) {
+            return new CachedCredentials(credentials, fetchedAt, fetchedAt.plus(lease.leaseDuration()), null, source);
+        }
+        if (credentials instanceof Rotation rotation) {
+            return new CachedCredentials(credentials, fetchedAt, null, fetchedAt.plus(rotation.ttl()), source);
+        }
+        return new CachedCredentials(credentials, fetchedAt, null, null, source);
+    }
+
+    /**
+     * Credentials with a lease are fresh until it is about to expire, and rotated credentials are expired once
+     * rotated. Otherwise the max age and stale window of {@code policy}, the source of the caller, apply.
+     */
+    Freshness freshness(Instant now, Duration safetyMargin, SecretSource policy) {
+        if (expiresAt != null) {
+            return now.plus(safetyMargin).isBefore(expiresAt) ? Freshness.FRESH : Freshness.EXPIRED;
+        }
+        if (rotatesAt != null && !now.isBefore(rotatesAt)) {
+            return Freshness.EXPIRED;
+        }
+        if (policy.maxAge() == null) {
+            return Freshness.FRESH;
+        }
+        final var age = Duration.between(fetchedAt, now);
+        if (age.compareTo(policy.maxAge()) < 0) {
+            return Freshness.FRESH;
+        }
+        if (policy.staleWhileRevalidate() != null && age.compareTo(policy.maxAge().plus(policy.staleWhileRevalidate())) < 0) {
+            return Freshness.STALE;
+        }
+        return Freshness.EXPIRED;
+    }
+
+    /**
+     * Whether expired credentials may still be used while Vault cannot be reached: never for credentials with a lease,
+     * which the database stops accepting once it expires, nor for invalidated ones, which the database may have
+     * rejected already.
+     */
+    boolean isWithinOfflineGrace(Instant now, SecretSource policy) {
+        if (credentials instanceof Lease || expiresAt != null || policy.offlineGrace() == null) {
+            return false;
+        }
+        Instant expiredAt = rotatesAt;
+        if (policy.maxAge() != null) {
+            final var staleUntil = fetchedAt.plus(policy.maxAge())
+                    .plus(policy.staleWhileRevalidate() != null ? policy.staleWhileRevalidate() : Duration.ZERO);
+            if (expiredAt == null || staleUntil.isBefore(expiredAt)) {
+                expiredAt = staleUntil;
+            }
+        }
+        return expiredAt != null && now.isBefore(expiredAt.plus(policy.offlineGrace()));
+    }
+
+    /**
+     * The same credentials, confirmed current at {@code now}, which also clears an invalidation.
+     */
+    CachedCredentials revalidated(Instant now) {
+        return new CachedCredentials(credentials, now, null, rotatesAt, source);
+    }
+
+    CachedCredentials withExpiresAt(Instant expiresAt) {
+        return new CachedCredentials(credentials, fetchedAt, expiresAt, rotatesAt, source);
+    }
+}
@@ -0,0 +1,120 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Runs background refresh work for cache entries. A single thread waits on a {@link DelayQueue} holding at most one
+ * pending task per key, and hands due tasks to a small worker pool so a slow Vault does not hold up other keys.
+ */
+class RefreshScheduler {
+
+    private static final ILog log = Platform.getLog(RefreshScheduler.class);
+
+    private static final double JITTER = 0.1;
+    private static final int WORKERS = 2;
+
+    private final DelayQueue<Task> queue = new DelayQueue<>();
+    private final Map<CacheKey, Task> pending = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+
+    RefreshScheduler() {
+        final var workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(WORKERS, r -> daemon(r, "Vault refresh worker " + workerCount.incrementAndGet()));
+        daemon(this::run, "Vault refresh scheduler").start();
+    }
+
+    /**
+     * Schedules {@code action} for {@code key} after roughly {@code fraction} of {@code remaining}, replacing any task
+     * already pending for that key. The delay is jittered so entries issued together do not refresh together.
+     */
+    void schedule(CacheKey key, Duration remaining, double fraction, Runnable action) {
+        final var jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        enqueue(key, (long) (remaining.toMillis() * fraction * jitter), action);
+    }
+
+    /**
+     * Schedules {@code action} for {@code key} no sooner than {@code delay}, and at most {@code maxJitter} later,
+     * replacing any task already pending for that key.
+     */
+    void scheduleAfter(CacheKey key, Duration delay, Duration maxJitter, Runnable action) {
+        final var jitterMillis = maxJitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(maxJitter.toMillis() + 1);
+        enqueue(key, delay.toMillis() + jitterMillis, action);
+    }
+
+    private void enqueue(CacheKey key, long delayMillis, Runnable action) {
+        delayMillis = Math.max(0, delayMillis);
+        final var task = new Task(key, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis), action);
+        final var previous = pending.put(key, task);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        queue.add(task);
+    }
+
+    /**
+     * Runs {@code action} on the worker pool right away, leaving the task pending for its key in place.
+     */
+    void execute(CacheKey key, Runnable action) {
+        workers.execute(() -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("Background refresh failed for " + key + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    void cancel(CacheKey key) {
+        final var task = pending.remove(key);
+        if (task != null) {
+            queue.remove(task);
+        }
+    }
+
+    boolean isScheduled(CacheKey key) {
+        return pending.containsKey(key);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                final var task = queue.take();
+                if (pending.remove(task.key(), task)) {
+                    execute(task.key(), task.action());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        final var thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private record Task(CacheKey key, long dueNanos, Runnable action) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
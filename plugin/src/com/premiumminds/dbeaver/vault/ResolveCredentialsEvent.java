@@ -0,0 +1,38 @@
+package com.premiumminds.dbeaver.vault;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event covering a whole {@link VaultAuthModel#initAuthentication} call, so Vault time can be told apart from
+ * the time spent connecting to the database.
+ */
+@Name("com.premiumminds.dbeaver.vault.ResolveCredentials")
+@Label("Resolve Vault Credentials")
+@Category("Vault")
+@Description("Database credentials obtained from Vault or the cache")
+final class ResolveCredentialsEvent extends jdk.jfr.Event {
+
+    static final String HIT = "hit";
+    static final String MISS = "miss";
+    static final String NEGATIVE_HIT = "negative-hit";
+    static final String OFFLINE = "offline";
+
+    @Label("Data Source")
+    String dataSource;
+
+    @Label("Address")
+    String address;
+
+    @Label("Secret")
+    String secret;
+
+    @Label("Secret Type")
+    String secretType;
+
+    @Label("Cache Outcome")
+    @Description("hit if cached credentials were used, miss if they were loaded, negative-hit if a recent failure was repeated, offline if expired credentials were used while Vault could not be reached")
+    String cacheOutcome;
+}
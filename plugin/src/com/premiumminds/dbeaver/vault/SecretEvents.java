@@ -0,0 +1,150 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.premiumminds.vault.client.VaultEventSubscriber;
+import com.premiumminds.vault.client.VaultTokenLoader;
+
+/**
+ * Keeps one Vault event subscription per Vault address and namespace holding cached KV secrets, so changed secrets are
+ * dropped from the cache as soon as Vault reports them. A subscription is closed once the last of its secrets is
+ * evicted from the cache, and moves to the token loader of another cached secret when the secrets using its own are
+ * all evicted. Cached secrets are checked against Vault after events may have been missed, and every
+ * {@link VaultSettings#EVENTS_POLL_INTERVAL} where Vault cannot send events.
+ */
+class SecretEvents {
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        final var thread = new Thread(r, "Vault events polling");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SecretsCache secretsCache;
+    private final Map<SubscriptionKey, Subscription> subscriptions = new HashMap<>();
+
+    private record SubscriptionKey(String address, String namespace) {
+    }
+
+    private static final class Subscription {
+
+        private final String address;
+        private final Path certificate;
+        private final String namespace;
+        /** token loader each cached secret was read with */
+        private final Map<CacheKey, VaultTokenLoader> tokenLoaders = new HashMap<>();
+
+        private VaultEventSubscriber subscriber;
+        private VaultTokenLoader tokenLoader;
+        private ScheduledFuture<?> polling;
+
+        Subscription(String address, Path certificate, String namespace) {
+            this.address = address;
+            this.certificate = certificate;
+            this.namespace = namespace;
+        }
+
+        void close() {
+            if (subscriber != null) {
+                subscriber.close();
+                subscriber = null;
+            }
+            if (polling != null) {
+                polling.cancel(false);
+                polling = null;
+            }
+        }
+    }
+
+    SecretEvents(SecretsCache secretsCache) {
+        this.secretsCache = secretsCache;
+        secretsCache.onEviction(this::evicted);
+    }
+
+    synchronized void subscribe(CacheKey key, String address, Path certificate, String namespace, VaultTokenLoader vaultTokenLoader) {
+        if (key.secretType() != SecretType.KV1 && key.secretType() != SecretType.KV2) {
+            return;
+        }
+        final var subscriptionKey = new SubscriptionKey(key.address(), key.namespace());
+        var subscription = subscriptions.get(subscriptionKey);
+        if (subscription == null) {
+            subscription = new Subscription(address, certificate, namespace);
+            subscriptions.put(subscriptionKey, subscription);
+            if (VaultEventSubscriber.isSupported(address)) {
+                start(subscriptionKey, subscription, vaultTokenLoader);
+            } else {
+                // only reachable through a Vault Agent socket, which cannot send events
+                poll(subscription);
+            }
+        }
+        subscription.tokenLoaders.put(key, vaultTokenLoader);
+    }
+
+    private synchronized void evicted(CacheKey key) {
+        final var subscriptionKey = new SubscriptionKey(key.address(), key.namespace());
+        final var subscription = subscriptions.get(subscriptionKey);
+        if (subscription == null || subscription.tokenLoaders.remove(key) == null) {
+            return;
+        }
+        if (subscription.tokenLoaders.isEmpty()) {
+            subscription.close();
+            subscriptions.remove(subscriptionKey);
+            return;
+        }
+        if (subscription.subscriber == null || subscription.tokenLoaders.containsValue(subscription.tokenLoader)) {
+            return;
+        }
+        // no cached secret is read with this token loader anymore, its token may no longer be kept valid
+        subscription.subscriber.close();
+        start(subscriptionKey, subscription, subscription.tokenLoaders.values().iterator().next());
+    }
+
+    private synchronized void eventsUnavailable(SubscriptionKey subscriptionKey) {
+        final var subscription = subscriptions.get(subscriptionKey);
+        if (subscription == null || subscription.polling != null) {
+            return;
+        }
+        if (subscription.subscriber != null) {
+            subscription.subscriber.close();
+            subscription.subscriber = null;
+        }
+        poll(subscription);
+    }
+
+    private void start(SubscriptionKey subscriptionKey, Subscription subscription, VaultTokenLoader vaultTokenLoader) {
+        final var address = subscription.address;
+        final var namespace = subscription.namespace;
+        final var subscriber = new VaultEventSubscriber(address, subscription.certificate, namespace, vaultTokenLoader,
+                new VaultEventSubscriber.EventListener() {
+                    @Override
+                    public void secretChanged(String path) {
+                        secretsCache.secretChanged(address, namespace, path);
+                    }
+
+                    @Override
+                    public void eventsMissed() {
+                        secretsCache.resync(address, namespace);
+                    }
+
+                    @Override
+                    public void eventsUnavailable() {
+                        SecretEvents.this.eventsUnavailable(subscriptionKey);
+                    }
+                });
+        subscription.subscriber = subscriber;
+        subscription.tokenLoader = vaultTokenLoader;
+        subscriber.start();
+    }
+
+    private void poll(Subscription subscription) {
+        final var interval = Math.max(1_000, VaultSettings.EVENTS_POLL_INTERVAL.toMillis());
+        subscription.polling = scheduler.scheduleWithFixedDelay(
+                () -> secretsCache.resync(subscription.address, subscription.namespace), interval, interval, TimeUnit.MILLISECONDS);
+    }
+}
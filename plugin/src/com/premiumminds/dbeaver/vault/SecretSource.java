@@ -0,0 +1,30 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.time.Duration;
+
+import com.premiumminds.vault.client.Credentials;
+import com.premiumminds.vault.client.Request;
+import com.premiumminds.vault.client.VaultClient;
+
+/**
+ * Where credentials come from, and how long credentials without a lease can be trusted.
+ *
+ * @param maxAge how long credentials without a lease are used without asking Vault again, or null to keep them until
+ *               the cache entry is invalidated
+ * @param staleWhileRevalidate after {@code maxAge}, how long credentials are still used while new ones are requested
+ *                             in the background, or null for none
+ * @param offlineGrace how long after they expire credentials without a lease are still used while Vault cannot be
+ *                     reached, or null for never
+ */
+record SecretSource(
+        VaultClient vaultClient,
+        String secret,
+        Request request,
+        Duration maxAge,
+        Duration staleWhileRevalidate,
+        Duration offlineGrace) {
+
+    Credentials fetch() throws Exception {
+        return vaultClient.getCredentials(secret, request);
+    }
+}
@@ -0,0 +1,477 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import com.premiumminds.dbeaver.vault.CachedCredentials.Freshness;
+import com.premiumminds.vault.client.Credentials;
+import com.premiumminds.vault.client.Lease;
+import com.premiumminds.vault.client.VaultException;
+import com.premiumminds.vault.client.VaultMetrics;
+import com.premiumminds.vault.client.VaultUnavailableException;
+import com.premiumminds.vault.client.Versioned;
+
+/**
+ * Credentials obtained from Vault, shared by all data sources. Leases of credentials in use by a connected data
+ * source are renewed in the background, and replaced by new credentials once they can no longer be renewed.
+ * Entries no data source is using are evicted once idle for {@link VaultSettings#CACHE_IDLE_TIMEOUT}, or least
+ * recently used first when the cache holds more than {@link VaultSettings#CACHE_MAX_ENTRIES}. A failed request is
+ * remembered for {@link VaultSettings#NEGATIVE_CACHE_TTL}, so connects in the meantime fail without asking Vault again.
+ * While Vault cannot be reached, expired credentials without a lease are still used for the offline grace period of
+ * their data source.
+ */
+class SecretsCache {
+
+    private static final ILog log = Platform.getLog(SecretsCache.class);
+
+    private static final double RENEW_FRACTION = 2.0 / 3;
+    private static final Duration ROTATION_DELAY = Duration.ofSeconds(5);
+    private static final Duration ROTATION_JITTER = Duration.ofSeconds(5);
+
+    private final Map<CacheKey, CachedCredentials> entries = new ConcurrentHashMap<>();
+    private final Map<CacheKey, Set<String>> activeDataSources = new ConcurrentHashMap<>();
+    private final Map<CacheKey, Long> lastAccessNanos = new ConcurrentHashMap<>();
+    private final Map<CacheKey, Failure> failures = new ConcurrentHashMap<>();
+    private final Set<CacheKey> servedOffline = ConcurrentHashMap.newKeySet();
+    private final Set<CacheKey> revalidating = ConcurrentHashMap.newKeySet();
+    private final SingleFlight<CacheKey, Credentials> loader = new SingleFlight<>();
+    private final RefreshScheduler scheduler = new RefreshScheduler();
+    private final List<Consumer<CacheKey>> evictionListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * State of a cache entry, as shown in the diagnostics view.
+     *
+     * @param expiresAt when the lease expires or the credentials are rotated, null if neither applies
+     * @param offline whether the credentials were last used because Vault could not be reached
+     */
+    record EntryInfo(
+            CacheKey key,
+            String username,
+            String leaseId,
+            Instant expiresAt,
+            int activeDataSources,
+            boolean refreshScheduled,
+            boolean offline) {
+    }
+
+    private record Failure(Exception error, long untilNanos) {
+    }
+
+    Credentials get(CacheKey key, SecretSource source, String dataSourceId, ResolveCredentialsEvent event) throws Exception {
+        activeDataSources.compute(key, (k, dataSources) -> {
+            final Set<String> active = dataSources != null ? dataSources : ConcurrentHashMap.newKeySet();
+            if (active.add(dataSourceId) && active.size() == 1) {
+                // drop a pending idle eviction, renewal is scheduled again below
+                scheduler.cancel(key);
+            }
+            return active;
+        });
+        lastAccessNanos.put(key, System.nanoTime());
+
+        final var cached = entries.get(key);
+        final var freshness = cached == null
+                ? Freshness.EXPIRED
+                : cached.freshness(Instant.now(), VaultSettings.LEASE_SAFETY_MARGIN, source);
+        if (freshness != Freshness.EXPIRED) {
+            if (freshness == Freshness.STALE) {
+                count("stale", key);
+                revalidate(key, cached);
+            } else if (!scheduler.isScheduled(key)) {
+                scheduleRenewal(key, cached);
+            }
+            count("hits", key);
+            event.cacheOutcome = ResolveCredentialsEvent.HIT;
+            return cached.credentials();
+        }
+        final var failure = failures.get(key);
+        if (failure != null) {
+            final var retryIn = failure.untilNanos() - System.nanoTime();
+            if (retryIn > 0) {
+                final var offline = useOffline(key, source, failure.error(), event);
+                if (offline != null) {
+                    return offline;
+                }
+                count("negativeHits", key);
+                event.cacheOutcome = ResolveCredentialsEvent.NEGATIVE_HIT;
+                throw new RuntimeException("Getting credentials from Vault failed, retrying in "
+                        + Math.max(1, Duration.ofNanos(retryIn).toSeconds()) + "s: " + Objects.requireNonNullElse(failure.error().getMessage(), failure.error().toString()),
+                        failure.error());
+            }
+            failures.remove(key, failure);
+        }
+        count("misses", key);
+        event.cacheOutcome = ResolveCredentialsEvent.MISS;
+        try {
+            return loader.load(key, () -> load(key, source));
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            if (!(e instanceof VaultUnavailableException) && !VaultSettings.NEGATIVE_CACHE_TTL.isZero()) {
+                failures.put(key, new Failure(e, System.nanoTime() + VaultSettings.NEGATIVE_CACHE_TTL.toNanos()));
+            }
+            final var offline = useOffline(key, source, e, event);
+            if (offline != null) {
+                return offline;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the cached credentials, if {@code error} means Vault cannot be reached and they are within their offline
+     * grace period, otherwise null
+     */
+    private Credentials useOffline(CacheKey key, SecretSource source, Exception error, ResolveCredentialsEvent event) {
+        final var cached = entries.get(key);
+        if (cached == null || !isUnreachable(error) || !cached.isWithinOfflineGrace(Instant.now(), source)) {
+            return null;
+        }
+        if (servedOffline.add(key)) {
+            log.warn("Vault cannot be reached, using credentials for " + key.secret() + " last read at " + cached.fetchedAt()
+                    + " until it is back: " + error.getMessage());
+        }
+        count("offline", key);
+        event.cacheOutcome = ResolveCredentialsEvent.OFFLINE;
+        return cached.credentials();
+    }
+
+    /**
+     * Connection problems, timeouts, server errors and an open circuit breaker, as opposed to Vault refusing the
+     * request or returning something unreadable.
+     */
+    private static boolean isUnreachable(Throwable error) {
+        for (var cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UncheckedIOException) {
+                return false;
+            }
+            if (cause instanceof VaultUnavailableException || cause instanceof IOException) {
+                return true;
+            }
+            if (cause instanceof VaultException vaultException) {
+                return vaultException.getStatusCode() >= 500;
+            }
+        }
+        return false;
+    }
+
+    void invalidate(CacheKey key) {
+        if (entries.computeIfPresent(key, (k, v) -> v.withExpiresAt(Instant.EPOCH)) != null) {
+            count("invalidations", key);
+        }
+    }
+
+    /**
+     * Drops the entry, so the next connect requests new credentials from Vault.
+     */
+    void flush(CacheKey key) {
+        failures.remove(key);
+        remove(key, false);
+    }
+
+    /**
+     * Requests new credentials for an entry ahead of the next connect, with the Vault client it was loaded with.
+     */
+    void prefetch(CacheKey key) throws Exception {
+        final var entry = entries.get(key);
+        if (entry != null) {
+            loader.load(key, () -> fetch(key, entry.source()));
+        }
+    }
+
+    /**
+     * Drops cached credentials read from a secret Vault reported as changed, or reads them again right away if a
+     * connected data source is using them.
+     */
+    void secretChanged(String address, String namespace, String secret) {
+        final var changed = CacheKey.of(address, namespace, secret, SecretType.KV1, null, null, null);
+        failures.keySet().removeIf(key -> key.address().equals(changed.address())
+                && Objects.equals(key.namespace(), changed.namespace())
+                && key.secret().equals(changed.secret()));
+        for (final var key : entries.keySet()) {
+            if (key.address().equals(changed.address())
+                    && Objects.equals(key.namespace(), changed.namespace())
+                    && key.secret().equals(changed.secret())) {
+                count("changes", key);
+                if (isActive(key)) {
+                    scheduler.schedule(key, Duration.ZERO, 0, () -> reload(key));
+                } else {
+                    remove(key, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks all cached KV credentials of a Vault address and namespace against Vault in the background, for when
+     * changes to their secrets may have gone unreported.
+     */
+    void resync(String address, String namespace) {
+        final var scope = CacheKey.of(address, namespace, null, SecretType.KV1, null, null, null);
+        entries.forEach((key, entry) -> {
+            if ((key.secretType() == SecretType.KV1 || key.secretType() == SecretType.KV2)
+                    && key.address().equals(scope.address())
+                    && Objects.equals(key.namespace(), scope.namespace())) {
+                count("resyncs", key);
+                revalidate(key, entry);
+            }
+        });
+    }
+
+    List<EntryInfo> entries() {
+        final List<EntryInfo> result = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            final var dataSources = activeDataSources.get(key);
+            result.add(new EntryInfo(key,
+                    entry.credentials().username(),
+                    entry.credentials() instanceof Lease lease ? lease.leaseId() : null,
+                    entry.expiresAt() != null ? entry.expiresAt() : entry.rotatesAt(),
+                    dataSources == null ? 0 : dataSources.size(),
+                    scheduler.isScheduled(key),
+                    servedOffline.contains(key)));
+        });
+        return result;
+    }
+
+    /**
+     * @param listener called with the key of each entry dropped from the cache
+     */
+    void onEviction(Consumer<CacheKey> listener) {
+        evictionListeners.add(listener);
+    }
+
+    void release(String dataSourceId) {
+        activeDataSources.forEach((key, dataSources) -> {
+            if (dataSources.remove(dataSourceId) && dataSources.isEmpty()) {
+                scheduler.scheduleAfter(key, VaultSettings.CACHE_IDLE_TIMEOUT, Duration.ZERO, () -> evictIfIdle(key));
+            }
+        });
+    }
+
+    private Credentials load(CacheKey key, SecretSource source) throws Exception {
+        final var now = Instant.now();
+        final var v = entries.get(key);
+        if (v != null) {
+            if (v.freshness(now, VaultSettings.LEASE_SAFETY_MARGIN, source) == Freshness.FRESH) {
+                return v.credentials();
+            }
+            if (v.credentials() instanceof Lease lease) {
+                final var leaseOpt = source.vaultClient().getLease(lease.leaseId());
+                if (leaseOpt.isPresent() && leaseOpt.get().leaseDuration().compareTo(VaultSettings.LEASE_SAFETY_MARGIN) > 0) {
+                    final var refreshed = v.withExpiresAt(now.plus(leaseOpt.get().leaseDuration()));
+                    entries.put(key, refreshed);
+                    scheduleRenewal(key, refreshed);
+                    return v.credentials();
+                }
+            }
+            return revalidateOrFetch(key, v, source);
+        }
+        return fetch(key, source);
+    }
+
+    /**
+     * Keeps versioned KV credentials if the metadata of the secret shows no newer version, otherwise fetches them.
+     */
+    private Credentials revalidateOrFetch(CacheKey key, CachedCredentials entry, SecretSource source) throws Exception {
+        if (entry.credentials() instanceof Versioned versioned) {
+            OptionalLong currentVersion;
+            try {
+                currentVersion = source.vaultClient().getCurrentVersion(source.secret());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("Problem reading the current version of " + source.secret() + ": " + e.getMessage(), e);
+                currentVersion = OptionalLong.empty();
+            }
+            if (currentVersion.isPresent() && currentVersion.getAsLong() == versioned.version()) {
+                final var revalidated = entry.revalidated(Instant.now());
+                if (entries.replace(key, entry, revalidated)) {
+                    failures.remove(key);
+                    servedOffline.remove(key);
+                    count("revalidations", key);
+                    return entry.credentials();
+                }
+            }
+        }
+        return fetch(key, source);
+    }
+
+    private Credentials fetch(CacheKey key, SecretSource source) throws Exception {
+        final var now = Instant.now();
+        final var loaded = source.fetch();
+        final var entry = CachedCredentials.of(loaded, now, source);
+        entries.put(key, entry);
+        failures.remove(key);
+        servedOffline.remove(key);
+        scheduleRenewal(key, entry);
+        evictLeastRecentlyUsed();
+        return loaded;
+    }
+
+    private void evictIfIdle(CacheKey key) {
+        if (isActive(key)) {
+            return;
+        }
+        final var accessed = lastAccessNanos.get(key);
+        final var idle = accessed == null ? VaultSettings.CACHE_IDLE_TIMEOUT : Duration.ofNanos(System.nanoTime() - accessed);
+        if (idle.compareTo(VaultSettings.CACHE_IDLE_TIMEOUT) >= 0) {
+            remove(key, VaultSettings.REVOKE_ON_EVICTION);
+        } else {
+            // used since the eviction was scheduled, check again once it has been idle long enough
+            scheduler.scheduleAfter(key, VaultSettings.CACHE_IDLE_TIMEOUT.minus(idle), Duration.ZERO, () -> evictIfIdle(key));
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        var excess = entries.size() - VaultSettings.CACHE_MAX_ENTRIES;
+        if (excess <= 0) {
+            return;
+        }
+        final var now = System.nanoTime();
+        final List<Map.Entry<CacheKey, Long>> idle = new ArrayList<>();
+        for (final var key : entries.keySet()) {
+            if (!isActive(key)) {
+                idle.add(Map.entry(key, now - lastAccessNanos.getOrDefault(key, now)));
+            }
+        }
+        // credentials of connected data sources are kept even past the limit, their leases must keep being renewed
+        idle.sort(Map.Entry.<CacheKey, Long>comparingByValue().reversed());
+        for (final var candidate : idle) {
+            if (excess-- <= 0) {
+                break;
+            }
+            remove(candidate.getKey(), VaultSettings.REVOKE_ON_EVICTION);
+        }
+    }
+
+    private void remove(CacheKey key, boolean revoke) {
+        scheduler.cancel(key);
+        lastAccessNanos.remove(key);
+        servedOffline.remove(key);
+        activeDataSources.computeIfPresent(key, (k, dataSources) -> dataSources.isEmpty() ? null : dataSources);
+        final var entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        count("evictions", key);
+        evictionListeners.forEach(listener -> listener.accept(key));
+        if (revoke && !isActive(key) && entry.credentials() instanceof Lease lease && lease.leaseId() != null && !lease.leaseId().isBlank()) {
+            entry.source().vaultClient().revokeLeaseAsync(lease.leaseId()).whenComplete((v, e) -> {
+                if (e != null) {
+                    log.warn("Problem revoking lease " + lease.leaseId() + ": " + e.getMessage(), e);
+                } else {
+                    count("revocations", key);
+                }
+            });
+        }
+    }
+
+    private void scheduleRenewal(CacheKey key, CachedCredentials entry) {
+        if (isActive(key) && entry.rotatesAt() != null) {
+            // read the new password once Vault has rotated it
+            final var untilRotation = Duration.between(Instant.now(), entry.rotatesAt());
+            scheduler.scheduleAfter(key, untilRotation.plus(ROTATION_DELAY), ROTATION_JITTER, () -> reload(key));
+            return;
+        }
+        if (!isActive(key) || entry.expiresAt() == null || !(entry.credentials() instanceof Lease lease)) {
+            return;
+        }
+        final var remaining = Duration.between(Instant.now(), entry.expiresAt());
+        if (lease.renewable()) {
+            scheduler.schedule(key, remaining, RENEW_FRACTION, () -> renew(key));
+        } else {
+            scheduler.schedule(key, remaining, RENEW_FRACTION, () -> reload(key));
+        }
+    }
+
+    private void renew(CacheKey key) {
+        final var entry = entries.get(key);
+        if (!isActive(key) || entry == null || !(entry.credentials() instanceof Lease lease)) {
+            return;
+        }
+        final var now = Instant.now();
+        final Lease renewed;
+        try {
+            renewed = entry.source().vaultClient().renewLease(lease.leaseId(), lease.leaseDuration());
+        } catch (Exception e) {
+            log.warn("Problem renewing lease " + lease.leaseId() + ": " + e.getMessage(), e);
+            scheduler.schedule(key, Duration.between(now, entry.expiresAt()), RENEW_FRACTION, () -> reload(key));
+            return;
+        }
+
+        final var renewedEntry = entry.withExpiresAt(now.plus(renewed.leaseDuration()));
+        if (!entries.replace(key, entry, renewedEntry)) {
+            return;
+        }
+        if (renewed.renewable() && renewed.leaseDuration().compareTo(lease.leaseDuration()) >= 0) {
+            scheduler.schedule(key, renewed.leaseDuration(), RENEW_FRACTION, () -> renew(key));
+        } else {
+            log.info("Lease " + lease.leaseId() + " reached its max TTL, new credentials will be requested");
+            scheduler.schedule(key, renewed.leaseDuration(), RENEW_FRACTION, () -> reload(key));
+        }
+    }
+
+    /**
+     * Requests new credentials in the background, unless the stale entry was replaced in the meantime. The renewal or
+     * rotation already scheduled for the entry stays in place, in case revalidation fails or keeps the entry.
+     */
+    private void revalidate(CacheKey key, CachedCredentials stale) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        scheduler.execute(key, () -> {
+            try {
+                loader.load(key, () -> {
+                    final var current = entries.get(key);
+                    if (current != stale) {
+                        return current == null ? null : current.credentials();
+                    }
+                    return revalidateOrFetch(key, stale, stale.source());
+                });
+            } catch (Exception e) {
+                log.warn("Problem revalidating credentials for " + key + ": " + e.getMessage(), e);
+            } finally {
+                revalidating.remove(key);
+            }
+        });
+    }
+
+    private void reload(CacheKey key) {
+        final var entry = entries.get(key);
+        if (!isActive(key) || entry == null) {
+            return;
+        }
+        try {
+            loader.load(key, () -> {
+                final var current = entries.get(key);
+                if (current != entry) {
+                    return current == null ? null : current.credentials();
+                }
+                return fetch(key, entry.source());
+            });
+        } catch (Exception e) {
+            log.warn("Problem requesting new credentials for " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void count(String event, CacheKey key) {
+        VaultMetrics.getInstance().counter("cache." + event + "." + key.secretType().name()).increment();
+    }
+
+    private boolean isActive(CacheKey key) {
+        final var dataSources = activeDataSources.get(key);
+        return dataSources != null && !dataSources.isEmpty();
+    }
+}
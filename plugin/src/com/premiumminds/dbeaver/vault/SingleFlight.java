@@ -0,0 +1,54 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses concurrent loads of the same key into a single execution, without holding any lock while loading.
+ */
+class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    V load(K key, Callable<V> loader) throws Exception {
+        while (true) {
+            final var future = new CompletableFuture<V>();
+            final var existing = inFlight.putIfAbsent(key, future);
+            if (existing == null) {
+                return run(key, future, loader);
+            }
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InterruptedException) {
+                    // the caller running the load was cancelled, but this one still wants the value
+                    continue;
+                }
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private V run(K key, CompletableFuture<V> future, Callable<V> loader) throws Exception {
+        try {
+            final var value = loader.call();
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // an Error must complete the future too, or the callers waiting on it would never return
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+}
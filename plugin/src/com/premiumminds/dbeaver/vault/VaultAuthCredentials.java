@@ -1,6 +1,7 @@
 package com.premiumminds.dbeaver.vault;
 
 import java.nio.file.Path;
+import java.time.Duration;
 
 import org.jkiss.dbeaver.model.access.DBAAuthCredentials;
 
@@ -14,6 +15,13 @@ public class VaultAuthCredentials implements DBAAuthCredentials  {
     private String passwordKey;
     private Path certificate;
     private String namespace;
+    private AuthMethod authMethod;
+    private String authMount;
+    private String authRole;
+    private String authSecret;
+    private Duration maxAge;
+    private Duration staleWhileRevalidate;
+    private Duration offlineGrace;
 
     public String getSecret() {
         return secret;
@@ -89,6 +97,82 @@ public class VaultAuthCredentials implements DBAAuthCredentials  {
         this.namespace = namespace;
     }
 
+    public AuthMethod getAuthMethod() {
+        return authMethod;
+    }
+
+    public void setAuthMethod(String authMethod) {
+        if (authMethod == null || authMethod.isBlank()) {
+            this.authMethod = AuthMethod.TOKEN;
+        } else {
+            this.authMethod = AuthMethod.valueOf(authMethod);
+        }
+    }
+
+    public void setAuthMethod(AuthMethod authMethod) {
+        this.authMethod = authMethod;
+    }
+
+    public String getAuthMount() {
+        return authMount;
+    }
+
+    public void setAuthMount(String authMount) {
+        this.authMount = authMount;
+    }
+
+    public String getAuthRole() {
+        return authRole;
+    }
+
+    public void setAuthRole(String authRole) {
+        this.authRole = authRole;
+    }
+
+    public String getAuthSecret() {
+        return authSecret;
+    }
+
+    public void setAuthSecret(String authSecret) {
+        this.authSecret = authSecret;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(String maxAge) {
+        this.maxAge = parseSeconds(maxAge);
+    }
+
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(String staleWhileRevalidate) {
+        this.staleWhileRevalidate = parseSeconds(staleWhileRevalidate);
+    }
+
+    public Duration getOfflineGrace() {
+        return offlineGrace;
+    }
+
+    public void setOfflineGrace(String offlineGrace) {
+        this.offlineGrace = parseSeconds(offlineGrace);
+    }
+
+    static Duration parseSeconds(String seconds) {
+        if (seconds == null || seconds.isBlank()) {
+            return null;
+        }
+        try {
+            final var value = Long.parseLong(seconds.trim());
+            return value >= 0 ? Duration.ofSeconds(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @Override
     public boolean isComplete() {
         return true;
@@ -1,6 +1,7 @@
 package com.premiumminds.dbeaver.vault;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
@@ -9,18 +10,26 @@ import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.Platform;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBConstants;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.access.DBAAuthModel;
 import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
+import org.jkiss.dbeaver.model.runtime.DBRBlockingObject;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 
+import com.premiumminds.vault.client.AppRoleTokenLoader;
+import com.premiumminds.vault.client.CachingVaultTokenLoader;
 import com.premiumminds.vault.client.Credentials;
 import com.premiumminds.vault.client.DefaultVaultTokenLoader;
-import com.premiumminds.vault.client.Lease;
+import com.premiumminds.vault.client.JwtTokenLoader;
+import com.premiumminds.vault.client.RenewingVaultTokenLoader;
 import com.premiumminds.vault.client.Request;
+import com.premiumminds.vault.client.UserpassTokenLoader;
 import com.premiumminds.vault.client.VaultClient;
+import com.premiumminds.vault.client.VaultMetrics;
+import com.premiumminds.vault.client.VaultTokenLoader;
 
 public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
 
@@ -34,14 +43,40 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
     public static final String PROP_SECRET_TYPE = "secret_type";
     public static final String PROP_USERNAME_KEY = "username_key";
     public static final String PROP_PASSWORD_KEY = "password_key";
+    public static final String PROP_AUTH_METHOD = "auth_method";
+    public static final String PROP_AUTH_MOUNT = "auth_mount";
+    public static final String PROP_AUTH_ROLE = "auth_role";
+    public static final String PROP_AUTH_SECRET = "auth_secret";
+    public static final String PROP_MAX_AGE = "max_age";
+    public static final String PROP_STALE_WHILE_REVALIDATE = "stale_while_revalidate";
+    public static final String PROP_OFFLINE_GRACE = "offline_grace";
     private static final String ENV_VAULT_AGENT_ADDR = "VAULT_AGENT_ADDR";
     private static final String ENV_VAULT_ADDR = "VAULT_ADDR";
     private static final String ENV_VAULT_CACERT = "VAULT_CACERT";
     private static final String ENV_VAULT_NAMESPACE = "VAULT_NAMESPACE";
     private static final String ERROR_VAULT_ADDRESS_NOT_DEFINED = "Vault address not defined";
     private static final String ERROR_VAULT_SECRET_NOT_DEFINED = "Vault secret not defined";
+    private static final String ERROR_VAULT_AUTH_ROLE_NOT_DEFINED = "Vault auth role not defined";
+    private static final String ERROR_VAULT_AUTH_SECRET_NOT_DEFINED = "Vault auth secret not defined";
 
-    private static final Map<CacheKey, Credentials> secretsCache = new ConcurrentHashMap<>();
+    private static final SecretsCache secretsCache = new SecretsCache();
+    private static final SecretEvents secretEvents = new SecretEvents(secretsCache);
+    private static final Map<TokenLoaderKey, VaultTokenLoader> tokenLoaders = new ConcurrentHashMap<>();
+
+    private record TokenLoaderKey(
+            AuthMethod authMethod,
+            String tokenFile,
+            String address,
+            Path certificate,
+            String namespace,
+            String authMount,
+            String authRole,
+            String authSecret) {
+    }
+
+    static SecretsCache getSecretsCache() {
+        return secretsCache;
+    }
 
     @NotNull
     public VaultAuthCredentials createCredentials() {
@@ -58,6 +93,13 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
         credentials.setSecretType(configuration.getAuthProperty(PROP_SECRET_TYPE));
         credentials.setUsernameKey(configuration.getAuthProperty(PROP_USERNAME_KEY));
         credentials.setPasswordKey(configuration.getAuthProperty(PROP_PASSWORD_KEY));
+        credentials.setAuthMethod(configuration.getAuthProperty(PROP_AUTH_METHOD));
+        credentials.setAuthMount(configuration.getAuthProperty(PROP_AUTH_MOUNT));
+        credentials.setAuthRole(configuration.getAuthProperty(PROP_AUTH_ROLE));
+        credentials.setAuthSecret(configuration.getAuthProperty(PROP_AUTH_SECRET));
+        credentials.setMaxAge(configuration.getAuthProperty(PROP_MAX_AGE));
+        credentials.setStaleWhileRevalidate(configuration.getAuthProperty(PROP_STALE_WHILE_REVALIDATE));
+        credentials.setOfflineGrace(configuration.getAuthProperty(PROP_OFFLINE_GRACE));
         return credentials;
     }
 
@@ -70,6 +112,13 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
         configuration.setAuthProperty(PROP_SECRET_TYPE, credentials.getSecretType().name());
         configuration.setAuthProperty(PROP_USERNAME_KEY, credentials.getUsernameKey());
         configuration.setAuthProperty(PROP_PASSWORD_KEY, credentials.getPasswordKey());
+        configuration.setAuthProperty(PROP_AUTH_METHOD, credentials.getAuthMethod().name());
+        configuration.setAuthProperty(PROP_AUTH_MOUNT, credentials.getAuthMount());
+        configuration.setAuthProperty(PROP_AUTH_ROLE, credentials.getAuthRole());
+        configuration.setAuthProperty(PROP_AUTH_SECRET, credentials.getAuthSecret());
+        configuration.setAuthProperty(PROP_MAX_AGE, toSeconds(credentials.getMaxAge()));
+        configuration.setAuthProperty(PROP_STALE_WHILE_REVALIDATE, toSeconds(credentials.getStaleWhileRevalidate()));
+        configuration.setAuthProperty(PROP_OFFLINE_GRACE, toSeconds(credentials.getOfflineGrace()));
     }
 
     @Override
@@ -80,16 +129,30 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
             DBPConnectionConfiguration configuration,
             Properties connectProps) throws DBException
     {
+        final var event = new ResolveCredentialsEvent();
+        event.begin();
+        final var start = System.nanoTime();
+        try {
+            return doInitAuthentication(monitor, dataSource, credentials, connectProps, event);
+        } finally {
+            VaultMetrics.getInstance().latency("initAuthentication").record(Duration.ofNanos(System.nanoTime() - start));
+            event.commit();
+        }
+    }
 
+    private Object doInitAuthentication(
+            DBRProgressMonitor monitor,
+            DBPDataSource dataSource,
+            VaultAuthCredentials credentials,
+            Properties connectProps,
+            ResolveCredentialsEvent event) throws DBException
+    {
         final var address = getAddress(credentials);
         final var secret = getSecret(credentials);
         final var certificate = getCertificate(credentials);
         final var namespace = getNamespace(credentials);
 
-        DefaultVaultTokenLoader vaultTokenLoader = new DefaultVaultTokenLoader(
-                Optional.ofNullable(credentials.getTokenFile()).map(Path::of),
-                address
-        );
+        final var vaultTokenLoader = getTokenLoader(credentials, address, certificate, namespace);
 
         final Request credentialsRequest = switch (credentials.getSecretType()) {
             case DYNAMIC_ROLE -> Request.dynamicRequest();
@@ -98,32 +161,48 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
             case KV2 -> Request.kv2Request(credentials.getUsernameKey(), credentials.getPasswordKey());
         };
 
-        final var key = new CacheKey(address, secret, credentials.getSecretType());
+        final var key = getCacheKey(credentials);
         log.info("Cache key used: " + key);
+        if (event.isEnabled()) {
+            event.dataSource = dataSource.getContainer().getId();
+            event.address = key.address();
+            event.secret = key.secret();
+            event.secretType = key.secretType().name();
+        }
 
-        final var value = secretsCache.compute(key, (k, v) -> {
-            final var vaultClient = VaultClient.builder()
-                    .withAddress(address)
-                    .withTokenLoader(vaultTokenLoader)
-                    .withCertificate(certificate)
-                    .withNamespace(namespace)
-                    .build();
-            try {
-                if (v == null) {
-                    return vaultClient.getCredentials(secret, credentialsRequest);
-                } else {
-                    if (v instanceof Lease lease) {
-                        final var leaseOpt = vaultClient.getLease(lease.leaseId());
-                        if (leaseOpt.isEmpty()) {
-                            return vaultClient.getCredentials(secret, credentialsRequest);
-                        }
-                    }
-                }
-                return v;
-            } catch (Exception e) {
-                throw new RuntimeException("Problem connecting to Vault: " + e.getMessage(), e);
+        final var vaultClient = VaultClient.builder()
+                .withAddress(address)
+                .withTokenLoader(vaultTokenLoader)
+                .withCertificate(certificate)
+                .withNamespace(namespace)
+                .withTimeout(getTimeout(dataSource))
+                .build();
+
+        final DBRBlockingObject vaultRequest = (m, blockThread) -> {
+            if (blockThread != null) {
+                blockThread.interrupt();
             }
-        });
+        };
+        final Credentials value;
+        monitor.startBlock(vaultRequest, "Get credentials from Vault");
+        try {
+            final var source = new SecretSource(vaultClient, secret, credentialsRequest,
+                    credentials.getMaxAge(), credentials.getStaleWhileRevalidate(), credentials.getOfflineGrace());
+            value = secretsCache.get(key, source, dataSource.getContainer().getId(), event);
+            if (VaultSettings.EVENTS) {
+                secretEvents.subscribe(key, address, certificate, namespace, vaultTokenLoader);
+            }
+        } catch (InterruptedException e) {
+            throw new DBException("Getting credentials from Vault was cancelled", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Problem connecting to Vault: " + e.getMessage(), e);
+        } finally {
+            monitor.endBlock();
+            if (monitor.isCanceled()) {
+                // clear an interrupt that arrived after the Vault request completed
+                Thread.interrupted();
+            }
+        }
 
         if (value.username() == null || value.password() == null) {
             throw new DBException("There is something wrong with the credentials obtained from Vault");
@@ -137,6 +216,56 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
         return credentials;
     }
 
+    private VaultTokenLoader getTokenLoader(VaultAuthCredentials credentials, String address, Path certificate, String namespace) {
+        final var authMethod = credentials.getAuthMethod();
+        final var key = switch (authMethod) {
+            case TOKEN -> new TokenLoaderKey(authMethod, credentials.getTokenFile(), address, certificate, namespace, null, null, null);
+            case APPROLE, JWT, USERPASS -> new TokenLoaderKey(authMethod, null, address, certificate, namespace,
+                    getAuthMount(credentials), getAuthRole(credentials), getAuthSecret(credentials));
+        };
+        return tokenLoaders.computeIfAbsent(key, k -> switch (k.authMethod()) {
+            case TOKEN -> {
+                final var defaultTokenLoader = new DefaultVaultTokenLoader(
+                        Optional.ofNullable(k.tokenFile()).map(Path::of),
+                        k.address()
+                );
+                final var cachingTokenLoader = new CachingVaultTokenLoader(defaultTokenLoader, defaultTokenLoader.getSourceFiles());
+                yield new RenewingVaultTokenLoader(cachingTokenLoader, k.address(), k.certificate(), k.namespace());
+            }
+            case APPROLE -> new AppRoleTokenLoader(k.address(), k.certificate(), k.namespace(), k.authMount(), k.authRole(), k.authSecret());
+            case JWT -> new JwtTokenLoader(k.address(), k.certificate(), k.namespace(), k.authMount(), k.authRole(), Path.of(k.authSecret()));
+            case USERPASS -> new UserpassTokenLoader(k.address(), k.certificate(), k.namespace(), k.authMount(), k.authRole(), k.authSecret());
+        });
+    }
+
+    private static String toSeconds(Duration duration) {
+        return duration == null ? null : String.valueOf(duration.toSeconds());
+    }
+
+    private Duration getTimeout(DBPDataSource dataSource) {
+        final var openTimeout = dataSource.getContainer().getPreferenceStore().getInt(ModelPreferences.CONNECTION_OPEN_TIMEOUT);
+        return openTimeout > 0 ? Duration.ofMillis(openTimeout) : null;
+    }
+
+    private CacheKey getCacheKey(VaultAuthCredentials credentials) {
+        return CacheKey.of(
+                getAddress(credentials),
+                getNamespace(credentials),
+                getSecret(credentials),
+                credentials.getSecretType(),
+                credentials.getUsernameKey(),
+                credentials.getPasswordKey(),
+                getTokenIdentity(credentials));
+    }
+
+    private String getTokenIdentity(VaultAuthCredentials credentials) {
+        final var authMethod = credentials.getAuthMethod();
+        return switch (authMethod) {
+            case TOKEN -> authMethod.name() + ":" + Optional.ofNullable(credentials.getTokenFile()).orElse("");
+            case APPROLE, JWT, USERPASS -> authMethod.name() + ":" + getAuthMount(credentials) + ":" + getAuthRole(credentials);
+        };
+    }
+
     private String getAddress(VaultAuthCredentials credentials) {
         final var definedAddress = credentials.getVaultHost();
         if (definedAddress != null && !definedAddress.isBlank()) {
@@ -162,6 +291,35 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
         throw new RuntimeException(ERROR_VAULT_SECRET_NOT_DEFINED);
     }
 
+    private String getAuthMount(VaultAuthCredentials credentials) {
+        final var authMount = credentials.getAuthMount();
+        if (authMount != null && !authMount.isBlank()) {
+            return authMount;
+        }
+        return switch (credentials.getAuthMethod()) {
+            case APPROLE -> AppRoleTokenLoader.DEFAULT_MOUNT;
+            case JWT -> JwtTokenLoader.DEFAULT_MOUNT;
+            case USERPASS -> UserpassTokenLoader.DEFAULT_MOUNT;
+            case TOKEN -> null;
+        };
+    }
+
+    private String getAuthRole(VaultAuthCredentials credentials) {
+        final var authRole = credentials.getAuthRole();
+        if (authRole != null && !authRole.isBlank()) {
+            return authRole;
+        }
+        throw new RuntimeException(ERROR_VAULT_AUTH_ROLE_NOT_DEFINED);
+    }
+
+    private String getAuthSecret(VaultAuthCredentials credentials) {
+        final var authSecret = credentials.getAuthSecret();
+        if (authSecret != null && !authSecret.isBlank()) {
+            return authSecret;
+        }
+        throw new RuntimeException(ERROR_VAULT_AUTH_SECRET_NOT_DEFINED);
+    }
+
     private Path getCertificate(VaultAuthCredentials credentials) {
         final var definedCertificate = credentials.getCertificate();
         if (definedCertificate != null) {
@@ -190,11 +348,12 @@ public class VaultAuthModel implements DBAAuthModel<VaultAuthCredentials>  {
 
     @Override
     public void endAuthentication(DBPDataSourceContainer dataSource, DBPConnectionConfiguration configuration, Properties connProperties) {
-
+        secretsCache.release(dataSource.getId());
     }
 
     @Override
     public void refreshCredentials(DBRProgressMonitor monitor, DBPDataSourceContainer dataSource, DBPConnectionConfiguration configuration, VaultAuthCredentials credentials) throws DBException {
-
+        // the database may have rejected the cached credentials, so check them against Vault on the next connect
+        secretsCache.invalidate(getCacheKey(credentials));
     }
 }
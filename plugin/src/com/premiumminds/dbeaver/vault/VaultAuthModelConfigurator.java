@@ -21,6 +21,13 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
     protected Text usernameKeyText;
     protected Text passwordKeyText;
     protected Combo type;
+    protected Combo authMethod;
+    protected Text authMountText;
+    protected Text authRoleText;
+    protected Text authSecretText;
+    protected Text maxAgeText;
+    protected Text staleWhileRevalidateText;
+    protected Text offlineGraceText;
 
     @Override
     public void createControl(Composite authPanel, Object object, Runnable propertyChangeListener) {
@@ -39,6 +46,13 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
         addressText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
         addressText.addModifyListener(e -> propertyChangeListener.run());
 
+        Label authMethodLabel = UIUtils.createLabel(authPanel, "Auth method:");
+        authMethodLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+
+        authMethod = new Combo(authPanel, SWT.DROP_DOWN | SWT.READ_ONLY);
+        authMethod.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
+        authMethod.addModifyListener(e -> propertyChangeListener.run());
+
         Label tokenFileLabel = UIUtils.createLabel(authPanel, "Token file:");
         tokenFileLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
 
@@ -46,6 +60,27 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
         tokenFileText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
         tokenFileText.addModifyListener(e -> propertyChangeListener.run());
 
+        Label authMountLabel = UIUtils.createLabel(authPanel, "Auth mount:");
+        authMountLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+
+        authMountText = new Text(authPanel, SWT.BORDER);
+        authMountText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
+        authMountText.addModifyListener(e -> propertyChangeListener.run());
+
+        Label authRoleLabel = UIUtils.createLabel(authPanel, "Auth role:");
+        authRoleLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+
+        authRoleText = new Text(authPanel, SWT.BORDER);
+        authRoleText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
+        authRoleText.addModifyListener(e -> propertyChangeListener.run());
+
+        Label authSecretLabel = UIUtils.createLabel(authPanel, "Auth secret:");
+        authSecretLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+
+        authSecretText = new Text(authPanel, SWT.BORDER | SWT.PASSWORD);
+        authSecretText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
+        authSecretText.addModifyListener(e -> propertyChangeListener.run());
+
         Label certificateLabel = UIUtils.createLabel(authPanel, "SSL certificate:");
         certificateLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
 
@@ -81,6 +116,27 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
         passwordKeyText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
         passwordKeyText.addModifyListener(e -> propertyChangeListener.run());
 
+        Label maxAgeLabel = UIUtils.createLabel(authPanel, "Max age (s):");
+        maxAgeLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+
+        maxAgeText = new Text(authPanel, SWT.BORDER);
+        maxAgeText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
+        maxAgeText.addModifyListener(e -> propertyChangeListener.run());
+
+        Label staleWhileRevalidateLabel = UIUtils.createLabel(authPanel, "Stale while revalidate (s):");
+        staleWhileRevalidateLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+
+        staleWhileRevalidateText = new Text(authPanel, SWT.BORDER);
+        staleWhileRevalidateText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
+        staleWhileRevalidateText.addModifyListener(e -> propertyChangeListener.run());
+
+        Label offlineGraceLabel = UIUtils.createLabel(authPanel, "Offline grace (s):");
+        offlineGraceLabel.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+
+        offlineGraceText = new Text(authPanel, SWT.BORDER);
+        offlineGraceText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_FILL));
+        offlineGraceText.addModifyListener(e -> propertyChangeListener.run());
+
 
         type.addSelectionListener(widgetSelectedAdapter(e -> handleSelection()));
         type.add(SecretType.DYNAMIC_ROLE.getText(), SecretType.DYNAMIC_ROLE.ordinal());
@@ -90,29 +146,77 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
         type.select(0);
         handleSelection();
 
+        authMethod.addSelectionListener(widgetSelectedAdapter(e -> handleAuthMethodSelection()));
+        authMethod.add(AuthMethod.TOKEN.getText(), AuthMethod.TOKEN.ordinal());
+        authMethod.add(AuthMethod.APPROLE.getText(), AuthMethod.APPROLE.ordinal());
+        authMethod.add(AuthMethod.JWT.getText(), AuthMethod.JWT.ordinal());
+        authMethod.add(AuthMethod.USERPASS.getText(), AuthMethod.USERPASS.ordinal());
+        authMethod.select(0);
+        handleAuthMethodSelection();
+
 
         secretText.setMessage("secret/my-secret");
         addressText.setMessage("http://example.com");
         tokenFileText.setMessage("$HOME/.vault-token");
+        authMountText.setMessage("approle, jwt or userpass");
+        authRoleText.setMessage("role id, role or username");
+        authSecretText.setMessage("secret id, path to JWT or password");
         certificateText.setMessage("path to certificate");
         namespaceText.setMessage("Namespace");
         usernameKeyText.setMessage("username");
         passwordKeyText.setMessage("password");
+        maxAgeText.setMessage("keep until invalidated");
+        staleWhileRevalidateText.setMessage("0");
+        offlineGraceText.setMessage("0");
     }
 
     private void handleSelection() {
         int idx = type.getSelectionIndex();
         switch (SecretType.values()[idx]) {
             case DYNAMIC_ROLE:
+                usernameKeyText.setEnabled(false);
+                passwordKeyText.setEnabled(false);
+                maxAgeText.setEnabled(false);
+                staleWhileRevalidateText.setEnabled(false);
+                offlineGraceText.setEnabled(false);
+                break;
+
             case STATIC_ROLE:
                 usernameKeyText.setEnabled(false);
                 passwordKeyText.setEnabled(false);
+                maxAgeText.setEnabled(true);
+                staleWhileRevalidateText.setEnabled(true);
+                offlineGraceText.setEnabled(true);
                 break;
 
             case KV1:
             case KV2:
                 usernameKeyText.setEnabled(true);
                 passwordKeyText.setEnabled(true);
+                maxAgeText.setEnabled(true);
+                staleWhileRevalidateText.setEnabled(true);
+                offlineGraceText.setEnabled(true);
+                break;
+        }
+    }
+
+    private void handleAuthMethodSelection() {
+        int idx = authMethod.getSelectionIndex();
+        switch (AuthMethod.values()[idx]) {
+            case TOKEN:
+                tokenFileText.setEnabled(true);
+                authMountText.setEnabled(false);
+                authRoleText.setEnabled(false);
+                authSecretText.setEnabled(false);
+                break;
+
+            case APPROLE:
+            case JWT:
+            case USERPASS:
+                tokenFileText.setEnabled(false);
+                authMountText.setEnabled(true);
+                authRoleText.setEnabled(true);
+                authSecretText.setEnabled(true);
                 break;
         }
     }
@@ -127,6 +231,13 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
         final var secretType = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_SECRET_TYPE);
         final var usernameKey = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_USERNAME_KEY);
         final var passwordKey = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_PASSWORD_KEY);
+        final var authMethodName = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_AUTH_METHOD);
+        final var authMount = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_AUTH_MOUNT);
+        final var authRole = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_AUTH_ROLE);
+        final var authSecret = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_AUTH_SECRET);
+        final var maxAge = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_MAX_AGE);
+        final var staleWhileRevalidate = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_STALE_WHILE_REVALIDATE);
+        final var offlineGrace = dataSource.getConnectionConfiguration().getAuthProperty(VaultAuthModel.PROP_OFFLINE_GRACE);
         if (secret != null) {
             secretText.setText(secret);
         }
@@ -153,6 +264,29 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
         if (passwordKey != null) {
             passwordKeyText.setText(passwordKey);
         }
+
+        if (authMethodName != null && !authMethodName.isBlank()) {
+            authMethod.select(AuthMethod.valueOf(authMethodName).ordinal());
+            handleAuthMethodSelection();
+        }
+        if (authMount != null) {
+            authMountText.setText(authMount);
+        }
+        if (authRole != null) {
+            authRoleText.setText(authRole);
+        }
+        if (authSecret != null) {
+            authSecretText.setText(authSecret);
+        }
+        if (maxAge != null) {
+            maxAgeText.setText(maxAge);
+        }
+        if (staleWhileRevalidate != null) {
+            staleWhileRevalidateText.setText(staleWhileRevalidate);
+        }
+        if (offlineGrace != null) {
+            offlineGraceText.setText(offlineGrace);
+        }
     }
 
     @Override
@@ -165,6 +299,13 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
         dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_SECRET_TYPE, SecretType.values()[this.type.getSelectionIndex()].name());
         dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_USERNAME_KEY, this.usernameKeyText.getText());
         dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_PASSWORD_KEY, this.passwordKeyText.getText());
+        dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_AUTH_METHOD, AuthMethod.values()[this.authMethod.getSelectionIndex()].name());
+        dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_AUTH_MOUNT, this.authMountText.getText());
+        dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_AUTH_ROLE, this.authRoleText.getText());
+        dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_AUTH_SECRET, this.authSecretText.getText());
+        dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_MAX_AGE, this.maxAgeText.getText());
+        dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_STALE_WHILE_REVALIDATE, this.staleWhileRevalidateText.getText());
+        dataSource.getConnectionConfiguration().setAuthProperty(VaultAuthModel.PROP_OFFLINE_GRACE, this.offlineGraceText.getText());
     }
 
     @Override
@@ -181,7 +322,20 @@ public class VaultAuthModelConfigurator implements IObjectPropertyConfigurator<O
             default -> true;
         };
 
-        return secretComplete && keysComplete;
+        boolean authComplete = switch (AuthMethod.values()[this.authMethod.getSelectionIndex()]) {
+            case APPROLE, JWT, USERPASS -> !(authRoleText.getText().isBlank() || authSecretText.getText().isBlank());
+            default -> true;
+        };
+
+        boolean maxAgeComplete = isSecondsOrBlank(maxAgeText.getText())
+                && isSecondsOrBlank(staleWhileRevalidateText.getText())
+                && isSecondsOrBlank(offlineGraceText.getText());
+
+        return secretComplete && keysComplete && authComplete && maxAgeComplete;
+    }
+
+    private static boolean isSecondsOrBlank(String text) {
+        return text.isBlank() || VaultAuthCredentials.parseSeconds(text) != null;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.eclipse.swt.widgets.TableItem;
+import org.eclipse.ui.part.ViewPart;
+import static org.eclipse.swt.events.SelectionListener.widgetSelectedAdapter;
+
+import com.premiumminds.vault.client.VaultMetrics;
+
+/**
+ * Shows the credentials cached from Vault and the plugin metrics, and lets cache entries be flushed or fetched again.
+ */
+public class VaultDiagnosticsView extends ViewPart {
+
+    private static final ILog log = Platform.getLog(VaultDiagnosticsView.class);
+
+    private static final int REFRESH_INTERVAL_MILLIS = 5_000;
+
+    private Table entriesTable;
+    private Table metricsTable;
+
+    @Override
+    public void createPartControl(Composite parent) {
+        parent.setLayout(new GridLayout(1, false));
+
+        final var buttons = new Composite(parent, SWT.NONE);
+        buttons.setLayout(new GridLayout(3, false));
+        buttons.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+        final var refreshButton = new Button(buttons, SWT.PUSH);
+        refreshButton.setText("Refresh");
+        refreshButton.addSelectionListener(widgetSelectedAdapter(e -> refresh()));
+
+        final var flushButton = new Button(buttons, SWT.PUSH);
+        flushButton.setText("Flush");
+        flushButton.addSelectionListener(widgetSelectedAdapter(e -> flushSelected()));
+
+        final var prefetchButton = new Button(buttons, SWT.PUSH);
+        prefetchButton.setText("Prefetch");
+        prefetchButton.addSelectionListener(widgetSelectedAdapter(e -> prefetchSelected()));
+
+        entriesTable = createTable(parent, "Address", "Namespace", "Secret", "Type", "Username", "Lease", "TTL remaining", "Data sources", "Refresh scheduled", "Offline");
+        metricsTable = createTable(parent, "Metric", "Count", "Mean", "p50", "p99", "Max");
+
+        refresh();
+        scheduleRefresh();
+    }
+
+    @Override
+    public void setFocus() {
+        entriesTable.setFocus();
+    }
+
+    private static Table createTable(Composite parent, String... columns) {
+        final var table = new Table(parent, SWT.BORDER | SWT.FULL_SELECTION | SWT.V_SCROLL | SWT.H_SCROLL);
+        table.setLayoutData(new GridData(GridData.FILL_BOTH));
+        table.setHeaderVisible(true);
+        table.setLinesVisible(true);
+        for (final var name : columns) {
+            final var column = new TableColumn(table, SWT.LEFT);
+            column.setText(name);
+            column.setWidth(120);
+        }
+        return table;
+    }
+
+    private void scheduleRefresh() {
+        entriesTable.getDisplay().timerExec(REFRESH_INTERVAL_MILLIS, () -> {
+            if (!entriesTable.isDisposed()) {
+                refresh();
+                scheduleRefresh();
+            }
+        });
+    }
+
+    private void refresh() {
+        final var now = Instant.now();
+
+        entriesTable.removeAll();
+        VaultAuthModel.getSecretsCache().entries().stream()
+                .sorted(Comparator.comparing((SecretsCache.EntryInfo e) -> e.key().address()).thenComparing(e -> e.key().secret()))
+                .forEach(entry -> {
+                    final var item = new TableItem(entriesTable, SWT.NONE);
+                    item.setData(entry.key());
+                    item.setText(new String[]{
+                            entry.key().address(),
+                            entry.key().namespace() == null ? "" : entry.key().namespace(),
+                            entry.key().secret(),
+                            entry.key().secretType().getText(),
+                            String.valueOf(entry.username()),
+                            entry.leaseId() == null ? "" : entry.leaseId(),
+                            entry.expiresAt() == null ? "" : format(Duration.between(now, entry.expiresAt())),
+                            String.valueOf(entry.activeDataSources()),
+                            entry.refreshScheduled() ? "yes" : "no",
+                            entry.offline() ? "yes" : "no"
+                    });
+                });
+
+        metricsTable.removeAll();
+        final var metrics = VaultMetrics.getInstance();
+        metrics.getCounters().forEach((name, count) -> new TableItem(metricsTable, SWT.NONE)
+                .setText(new String[]{name, String.valueOf(count), "", "", "", ""}));
+        metrics.getLatencies().forEach((name, histogram) -> new TableItem(metricsTable, SWT.NONE)
+                .setText(new String[]{
+                        name,
+                        String.valueOf(histogram.count()),
+                        format(histogram.mean()),
+                        format(histogram.percentile(50)),
+                        format(histogram.percentile(99)),
+                        format(histogram.max())
+                }));
+    }
+
+    private void flushSelected() {
+        for (final var item : entriesTable.getSelection()) {
+            VaultAuthModel.getSecretsCache().flush((CacheKey) item.getData());
+        }
+        refresh();
+    }
+
+    private void prefetchSelected() {
+        for (final var item : entriesTable.getSelection()) {
+            final var key = (CacheKey) item.getData();
+            CompletableFuture.runAsync(() -> {
+                try {
+                    VaultAuthModel.getSecretsCache().prefetch(key);
+                } catch (Exception e) {
+                    log.warn("Problem prefetching credentials for " + key + ": " + e.getMessage(), e);
+                }
+            }).thenRun(() -> entriesTable.getDisplay().asyncExec(() -> {
+                if (!entriesTable.isDisposed()) {
+                    refresh();
+                }
+            }));
+        }
+    }
+
+    private static String format(Duration duration) {
+        if (duration.isNegative()) {
+            return "expired";
+        }
+        if (duration.compareTo(Duration.ofSeconds(1)) < 0) {
+            return String.format("%.1f ms", duration.toNanos() / 1_000_000.0);
+        }
+        if (duration.compareTo(Duration.ofMinutes(1)) < 0) {
+            return String.format("%.1f s", duration.toMillis() / 1_000.0);
+        }
+        return duration.toMinutes() + " min " + duration.toSecondsPart() + " s";
+    }
+}
@@ -0,0 +1,44 @@
+package com.premiumminds.dbeaver.vault;
+
+import java.time.Duration;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Global tuning knobs, read from system properties (e.g. {@code -Dcom.premiumminds.dbeaver.vault.leaseSafetyMargin=60}
+ * in {@code dbeaver.ini}).
+ */
+final class VaultSettings {
+
+    private static final ILog log = Platform.getLog(VaultSettings.class);
+
+    private static final String PREFIX = "com.premiumminds.dbeaver.vault.";
+
+    static final Duration LEASE_SAFETY_MARGIN = seconds("leaseSafetyMargin", 30);
+    static final int CACHE_MAX_ENTRIES = (int) number("cacheMaxEntries", 256);
+    static final Duration CACHE_IDLE_TIMEOUT = seconds("cacheIdleTimeout", 8 * 60 * 60);
+    static final boolean REVOKE_ON_EVICTION = Boolean.getBoolean(PREFIX + "revokeOnEviction");
+    static final Duration NEGATIVE_CACHE_TTL = seconds("negativeCacheTtl", 5);
+    static final boolean EVENTS = Boolean.getBoolean(PREFIX + "events");
+    static final Duration EVENTS_POLL_INTERVAL = seconds("eventsPollInterval", 300);
+
+    private VaultSettings() {
+    }
+
+    private static Duration seconds(String name, long defaultValue) {
+        return Duration.ofSeconds(number(name, defaultValue));
+    }
+
+    private static long number(String name, long defaultValue) {
+        final var value = System.getProperty(PREFIX + name);
+        if (value != null && !value.isBlank()) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid value for " + PREFIX + name + ": " + value);
+            }
+        }
+        return defaultValue;
+    }
+}
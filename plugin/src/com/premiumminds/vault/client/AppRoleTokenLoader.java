@@ -0,0 +1,28 @@
+package com.premiumminds.vault.client;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+public class AppRoleTokenLoader extends LoginVaultTokenLoader {
+
+    public static final String DEFAULT_MOUNT = "approle";
+
+    private final String roleId;
+    private final String secretId;
+
+    public AppRoleTokenLoader(String address, Path certificate, String namespace, String mount, String roleId, String secretId) {
+        super(address, certificate, namespace, mount);
+        this.roleId = roleId;
+        this.secretId = secretId;
+    }
+
+    @Override
+    protected String getLoginPath(String mount) {
+        return "auth/" + mount + "/login";
+    }
+
+    @Override
+    protected Map<String, String> getLoginBody() {
+        return Map.of("role_id", roleId, "secret_id", secretId);
+    }
+}
@@ -0,0 +1,6 @@
+package com.premiumminds.vault.client;
+
+import java.time.Duration;
+
+public record AuthToken(String clientToken, Duration leaseDuration, boolean renewable) {
+}
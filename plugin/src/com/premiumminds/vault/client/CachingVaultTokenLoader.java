@@ -0,0 +1,49 @@
+package com.premiumminds.vault.client;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the token resolved by another {@link VaultTokenLoader} in memory until one of the files it was read from
+ * changes, or until Vault rejects it.
+ */
+public class CachingVaultTokenLoader implements VaultTokenLoader {
+
+    private final VaultTokenLoader delegate;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile String token;
+
+    public CachingVaultTokenLoader(VaultTokenLoader delegate, Collection<Path> watchedFiles) {
+        this.delegate = delegate;
+        for (final var file : watchedFiles) {
+            FileWatcher.getInstance().watch(file, this::invalidate);
+        }
+    }
+
+    @Override
+    public String get() throws Exception {
+        final var cached = token;
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            if (token != null) {
+                return token;
+            }
+            final var loadedGeneration = generation.get();
+            final var loaded = delegate.get();
+            if (generation.get() == loadedGeneration) {
+                token = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        generation.incrementAndGet();
+        token = null;
+        delegate.invalidate();
+    }
+}
@@ -0,0 +1,165 @@
+package com.premiumminds.vault.client;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stops sending requests to a Vault address once most recent requests failed or were slow, so callers fail fast
+ * instead of each waiting for a timeout. After {@link #OPEN_DURATION} a single probe request is let through, and its
+ * outcome decides whether the breaker closes again. The open duration and slow call threshold are configured in
+ * seconds by the {@code com.premiumminds.dbeaver.vault.circuitBreakerOpenDuration} and
+ * {@code com.premiumminds.dbeaver.vault.circuitBreakerSlowCall} system properties.
+ */
+final class CircuitBreaker {
+
+    private static final ILog logger = Platform.getLog(CircuitBreaker.class);
+
+    private static final String PROP_OPEN_DURATION = "com.premiumminds.dbeaver.vault.circuitBreakerOpenDuration";
+    private static final String PROP_SLOW_CALL = "com.premiumminds.dbeaver.vault.circuitBreakerSlowCall";
+
+    static final Duration OPEN_DURATION = Duration.ofSeconds(Long.getLong(PROP_OPEN_DURATION, 30));
+    private static final Duration SLOW_CALL = Duration.ofSeconds(Long.getLong(PROP_SLOW_CALL, 5));
+    private static final int WINDOW_SIZE = 20;
+    private static final int MINIMUM_CALLS = 5;
+    private static final double FAILURE_RATE_THRESHOLD = 0.5;
+    private static final double SLOW_CALL_RATE_THRESHOLD = 0.8;
+
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private enum Outcome { SUCCESS, SLOW, FAILURE }
+
+    private final String address;
+
+    private final Outcome[] window = new Outcome[WINDOW_SIZE];
+    private int windowStart;
+    private int windowCount;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    private CircuitBreaker(String address) {
+        this.address = address;
+    }
+
+    static CircuitBreaker forAddress(String address) {
+        return breakers.computeIfAbsent(address, CircuitBreaker::new);
+    }
+
+    /**
+     * @return false if the request must not be sent; otherwise the caller must report its outcome with
+     * {@link #onResult} or {@link #onIgnored}
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < OPEN_DURATION.toNanos()) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (probeInFlight) {
+            return false;
+        }
+        probeInFlight = true;
+        return true;
+    }
+
+    synchronized void onResult(boolean failed, Duration elapsed) {
+        final var outcome = failed ? Outcome.FAILURE : elapsed.compareTo(SLOW_CALL) > 0 ? Outcome.SLOW : Outcome.SUCCESS;
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            if (outcome == Outcome.SUCCESS) {
+                logger.info("Vault at " + address + " is responding again");
+                reset();
+                state = State.CLOSED;
+            } else {
+                open();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        record(outcome);
+        if (windowCount >= MINIMUM_CALLS
+                && (failures >= windowCount * FAILURE_RATE_THRESHOLD || slowCalls >= windowCount * SLOW_CALL_RATE_THRESHOLD)) {
+            logger.warn("Vault at " + address + " failed " + failures + " and was slow on " + slowCalls + " of the last "
+                    + windowCount + " requests, not sending requests for " + OPEN_DURATION.toSeconds() + "s");
+            open();
+        }
+    }
+
+    /**
+     * For requests that were abandoned by the caller, and say nothing about the health of Vault.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return how long until a probe request will be let through
+     */
+    synchronized Duration retryIn() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        final var remaining = OPEN_DURATION.minusNanos(System.nanoTime() - openedAtNanos);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        VaultMetrics.getInstance().counter("circuitBreaker.opened").increment();
+        reset();
+    }
+
+    private void record(Outcome outcome) {
+        if (windowCount == WINDOW_SIZE) {
+            forget(window[windowStart]);
+            window[windowStart] = outcome;
+            windowStart = (windowStart + 1) % WINDOW_SIZE;
+        } else {
+            window[(windowStart + windowCount) % WINDOW_SIZE] = outcome;
+            windowCount++;
+        }
+        if (outcome == Outcome.FAILURE) {
+            failures++;
+        } else if (outcome == Outcome.SLOW) {
+            slowCalls++;
+        }
+    }
+
+    private void forget(Outcome outcome) {
+        if (outcome == Outcome.FAILURE) {
+            failures--;
+        } else if (outcome == Outcome.SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private void reset() {
+        windowStart = 0;
+        windowCount = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,154 @@
+package com.premiumminds.vault.client;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads credentials from a Vault secret response as a stream, keeping only the username, the password and the lease,
+ * rotation or version metadata. Everything else in the secret is skipped without being materialized.
+ */
+final class CredentialsReader {
+
+    private final String userKey;
+    private final String passKey;
+    private final boolean nestedData;
+    private final boolean withLease;
+    private final boolean withRotation;
+
+    private String username;
+    private String password;
+    private String leaseId;
+    private long leaseDuration;
+    private boolean renewable;
+    private long ttl;
+    private long rotationPeriod;
+    private String lastVaultRotation;
+    private long version = -1;
+
+    private CredentialsReader(String userKey, String passKey, boolean nestedData, boolean withLease, boolean withRotation) {
+        this.userKey = userKey;
+        this.passKey = passKey;
+        this.nestedData = nestedData;
+        this.withLease = withLease;
+        this.withRotation = withRotation;
+    }
+
+    static Credentials read(Request request, Reader body) throws IOException {
+        // TODO: replace with JEP 441: Pattern Matching for switch in Java 21
+        final CredentialsReader reader;
+        if (request instanceof Request.StaticRequest) {
+            reader = new CredentialsReader("username", "password", false, false, true);
+        } else if (request instanceof Request.DynamicRequest) {
+            reader = new CredentialsReader("username", "password", false, true, false);
+        } else if (request instanceof Request.KV1Request kv1Request) {
+            reader = new CredentialsReader(kv1Request.userKey(), kv1Request.passKey(), false, false, false);
+        } else if (request instanceof Request.KV2Request kv2Request) {
+            reader = new CredentialsReader(kv2Request.userKey(), kv2Request.passKey(), true, false, false);
+        } else {
+            throw new IllegalStateException("Unknown request type: " + request.getClass().getName());
+        }
+
+        try (var json = new JsonReader(body)) {
+            return reader.read(json);
+        }
+    }
+
+    private Credentials read(JsonReader json) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            final var name = json.nextName();
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "lease_id" -> leaseId = json.nextString();
+                case "lease_duration" -> leaseDuration = json.nextLong();
+                case "renewable" -> renewable = json.nextBoolean();
+                case "data" -> readData(json, nestedData);
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (withLease) {
+            return new VaultClient.ResponseWithLease(username, password, leaseId, Duration.ofSeconds(leaseDuration), renewable);
+        }
+        if (nestedData && version >= 0) {
+            return new VaultClient.ResponseWithVersion(username, password, version);
+        }
+        if (withRotation && ttl > 0) {
+            return new VaultClient.ResponseWithRotation(username, password, Duration.ofSeconds(ttl),
+                    Duration.ofSeconds(rotationPeriod), parseInstant(lastVaultRotation));
+        }
+        return new VaultClient.Response(username, password);
+    }
+
+    private void readData(JsonReader json, boolean nested) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            final var name = json.nextName();
+            if (nested && name.equals("data") && json.peek() == JsonToken.BEGIN_OBJECT) {
+                readData(json, false);
+            } else if (nested && name.equals("metadata") && json.peek() == JsonToken.BEGIN_OBJECT) {
+                readMetadata(json);
+            } else if (!nested && withRotation && json.peek() == JsonToken.NUMBER && name.equals("ttl")) {
+                ttl = json.nextLong();
+            } else if (!nested && withRotation && json.peek() == JsonToken.NUMBER && name.equals("rotation_period")) {
+                rotationPeriod = json.nextLong();
+            } else if (!nested && withRotation && json.peek() == JsonToken.STRING && name.equals("last_vault_rotation")) {
+                lastVaultRotation = json.nextString();
+            } else if (!nested && (name.equals(userKey) || name.equals(passKey))) {
+                final var value = readString(json);
+                if (name.equals(userKey)) {
+                    username = value;
+                }
+                if (name.equals(passKey)) {
+                    password = value;
+                }
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    private void readMetadata(JsonReader json) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("version") && json.peek() == JsonToken.NUMBER) {
+                version = json.nextLong();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    private static Instant parseInstant(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String readString(JsonReader json) throws IOException {
+        final var token = json.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return json.nextString();
+        }
+        json.skipValue();
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.premiumminds.vault.client;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Notifies listeners when watched files are created, modified or deleted, using one {@link WatchService} thread for
+ * all of them.
+ */
+final class FileWatcher {
+
+    private static final ILog logger = Platform.getLog(FileWatcher.class);
+
+    private static final FileWatcher INSTANCE = new FileWatcher();
+
+    private final Map<Path, List<Runnable>> listeners = new ConcurrentHashMap<>();
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private volatile WatchService watchService;
+
+    private FileWatcher() {
+    }
+
+    static FileWatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return false if the file cannot be watched, e.g. because its directory does not exist
+     */
+    boolean watch(Path file, Runnable listener) {
+        final var absolute = file.toAbsolutePath().normalize();
+        final var directory = absolute.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return false;
+        }
+        try {
+            if (directories.add(directory)) {
+                directory.register(getWatchService(),
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            directories.remove(directory);
+            logger.warn("Unable to watch " + directory + ": " + e.getMessage(), e);
+            return false;
+        }
+        listeners.computeIfAbsent(absolute, k -> new CopyOnWriteArrayList<>()).add(listener);
+        return true;
+    }
+
+    private WatchService getWatchService() throws IOException {
+        if (watchService == null) {
+            synchronized (this) {
+                if (watchService == null) {
+                    watchService = FileSystems.getDefault().newWatchService();
+                    final var thread = new Thread(this::run, "Vault file watcher");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            }
+        }
+        return watchService;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final var directory = (Path) key.watchable();
+            for (final var event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    listeners.values().forEach(this::notify);
+                } else if (event.context() instanceof Path name) {
+                    final var fileListeners = listeners.get(directory.resolve(name));
+                    if (fileListeners != null) {
+                        notify(fileListeners);
+                    }
+                }
+            }
+            if (!key.reset()) {
+                directories.remove(directory);
+            }
+        }
+    }
+
+    private void notify(List<Runnable> fileListeners) {
+        for (final var listener : fileListeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.warn("Problem handling file change: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.premiumminds.vault.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Like {@link CompletableFuture#thenApply}, but cancelling the returned future also cancels {@code source}, so
+     * the exchange behind it is aborted.
+     */
+    static <T, U> CompletableFuture<U> map(CompletableFuture<T> source, Function<? super T, ? extends U> fn) {
+        final CompletableFuture<U> result = source.thenApply(fn);
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Waits for {@code future}, cancelling it if the waiting thread is interrupted, and rethrows the exception it
+     * failed with.
+     */
+    static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static Exception unwrap(Throwable throwable) {
+        var cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new ExecutionException(cause);
+    }
+}
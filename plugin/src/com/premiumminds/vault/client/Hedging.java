@@ -0,0 +1,100 @@
+package com.premiumminds.vault.client;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * When a read sent to one Vault node has not been answered within the 95th percentile latency of recent successful
+ * reads of its endpoint, the same read may be sent to another node, and whichever answers first is used. Enabled by the
+ * {@code com.premiumminds.dbeaver.vault.hedging} system property, with at most
+ * {@code com.premiumminds.dbeaver.vault.hedgingBudget} percent of reads being sent twice.
+ */
+final class Hedging {
+
+    private static final String PROP_HEDGING = "com.premiumminds.dbeaver.vault.hedging";
+    private static final String PROP_HEDGING_BUDGET = "com.premiumminds.dbeaver.vault.hedgingBudget";
+
+    static final boolean ENABLED = Boolean.getBoolean(PROP_HEDGING);
+    private static final double BUDGET = Math.min(100, Math.max(0, Long.getLong(PROP_HEDGING_BUDGET, 10))) / 100.0;
+    private static final double MAX_SAVED = 5;
+    private static final long MIN_SAMPLES = 20;
+    private static final Duration MIN_DELAY = Duration.ofMillis(10);
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private static final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private static double tokens;
+
+    /**
+     * Latencies of the current and the previous {@link #WINDOW}, so the delay follows how Vault is doing now.
+     */
+    private static final class Window {
+
+        private LatencyHistogram current = new LatencyHistogram();
+        private LatencyHistogram previous = new LatencyHistogram();
+        private long rotatedAtNanos = System.nanoTime();
+
+        synchronized LatencyHistogram current() {
+            final var now = System.nanoTime();
+            final var elapsed = now - rotatedAtNanos;
+            if (elapsed >= WINDOW.toNanos()) {
+                // after a whole window without reads, the previous one is too old as well
+                previous = elapsed >= 2 * WINDOW.toNanos() ? new LatencyHistogram() : current;
+                current = new LatencyHistogram();
+                rotatedAtNanos = now;
+            }
+            return current;
+        }
+
+        synchronized LatencyHistogram recent() {
+            final var latest = current();
+            return latest.count() >= MIN_SAMPLES ? latest : previous;
+        }
+    }
+
+    private Hedging() {
+    }
+
+    /**
+     * Adds a fraction of a hedge to the budget for each read, so only a share of reads can be hedged, with a small
+     * allowance saved up for bursts.
+     */
+    static synchronized void onRead() {
+        tokens = Math.min(MAX_SAVED, tokens + BUDGET);
+    }
+
+    static synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            VaultMetrics.getInstance().counter("hedging.overBudget").increment();
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Times a response that was received, and was not an error, so failures, timeouts and cancelled hedges do not
+     * make the delay longer.
+     */
+    static void onSuccess(String endpoint, Duration latency) {
+        windows.computeIfAbsent(endpoint, k -> new Window()).current().record(latency);
+    }
+
+    /**
+     * @return empty until enough recent reads of the endpoint were timed to tell what is slow
+     */
+    static Optional<Duration> delay(String endpoint) {
+        final var window = windows.get(endpoint);
+        if (window == null) {
+            return Optional.empty();
+        }
+        final var latency = window.recent();
+        if (latency.count() < MIN_SAMPLES) {
+            return Optional.empty();
+        }
+        final var p95 = latency.percentile(95);
+        return Optional.of(p95.compareTo(MIN_DELAY) < 0 ? MIN_DELAY : p95);
+    }
+}
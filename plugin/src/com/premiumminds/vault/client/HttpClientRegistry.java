@@ -0,0 +1,96 @@
+package com.premiumminds.vault.client;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link HttpClient} per Vault endpoint, so connections and TLS sessions are reused across data sources.
+ * A client is rebuilt when the certificate it trusts changes on disk.
+ */
+final class HttpClientRegistry {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Map<ClientKey, HttpClient> clients = new ConcurrentHashMap<>();
+
+    private HttpClientRegistry() {
+    }
+
+    private record ClientKey(String address, Optional<Path> certificate, FileTime certificateModified, HttpClient.Version version) {
+    }
+
+    static HttpClient get(String address, Optional<Path> certificate, HttpClient.Version version) throws IOException {
+        final var certificatePath = certificate.map(p -> p.toAbsolutePath().normalize());
+        final FileTime certificateModified = certificatePath.isPresent()
+                ? Files.getLastModifiedTime(certificatePath.get())
+                : null;
+        final var key = new ClientKey(address, certificatePath, certificateModified, version);
+
+        final var client = clients.get(key);
+        if (client != null) {
+            return client;
+        }
+
+        clients.keySet().removeIf(k -> k.address().equals(address)
+                && k.certificate().equals(certificatePath)
+                && k.version() == version
+                && !Objects.equals(k.certificateModified(), certificateModified));
+
+        return clients.computeIfAbsent(key, k -> {
+            try {
+                return createClient(k.certificate(), k.version());
+            } catch (Exception e) {
+                throw new RuntimeException("Problem loading certificate " + k.certificate().orElse(null) + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    private static HttpClient createClient(Optional<Path> certificate, HttpClient.Version version) throws Exception {
+
+        var builder = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(CONNECT_TIMEOUT);
+        if (certificate.isPresent()) {
+            builder.sslContext(getSSLContext(certificate.get()));
+        }
+        return builder.build();
+    }
+
+    private static SSLContext getSSLContext(Path certificate) throws Exception {
+
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+
+        try (InputStream is = new FileInputStream(certificate.toFile())) {
+            Certificate cert = cf.generateCertificate(is);
+
+            KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+            ks.load(null, null);
+            ks.setCertificateEntry("vault-cert", cert);
+
+            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            tmf.init(ks);
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, tmf.getTrustManagers(), new SecureRandom());
+
+            return sslContext;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.premiumminds.vault.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+class HttpClientTransport implements VaultTransport {
+
+    private final String address;
+    private final Optional<Path> certificate;
+
+    HttpClientTransport(String address, Optional<Path> certificate) {
+        this.address = address;
+        this.certificate = certificate;
+    }
+
+    @Override
+    public CompletableFuture<VaultHttpResponse> sendAsync(VaultHttpRequest request, Duration timeout) {
+        final HttpClient httpClient;
+        try {
+            httpClient = HttpClientRegistry.get(address, certificate, HttpClient.Version.HTTP_1_1);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        final var builder = HttpRequest.newBuilder()
+                .method(request.method(), request.body() == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(request.body()))
+                .uri(URI.create(address).resolve(request.path()))
+                .timeout(timeout);
+        request.headers().forEach(builder::header);
+
+        return Futures.map(httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray()),
+                response -> new VaultHttpResponse(response.statusCode(), lowerCase(response.headers().map()), response.body()));
+    }
+
+    private static Map<String, List<String>> lowerCase(Map<String, List<String>> headers) {
+        return headers.entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().toLowerCase(Locale.ROOT), Map.Entry::getValue, (a, b) -> a));
+    }
+}
@@ -0,0 +1,29 @@
+package com.premiumminds.vault.client;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class JwtTokenLoader extends LoginVaultTokenLoader {
+
+    public static final String DEFAULT_MOUNT = "jwt";
+
+    private final String role;
+    private final Path jwtFile;
+
+    public JwtTokenLoader(String address, Path certificate, String namespace, String mount, String role, Path jwtFile) {
+        super(address, certificate, namespace, mount);
+        this.role = role;
+        this.jwtFile = jwtFile;
+    }
+
+    @Override
+    protected String getLoginPath(String mount) {
+        return "auth/" + mount + "/login";
+    }
+
+    @Override
+    protected Map<String, String> getLoginBody() throws Exception {
+        return Map.of("role", role, "jwt", Files.readString(jwtFile).trim());
+    }
+}
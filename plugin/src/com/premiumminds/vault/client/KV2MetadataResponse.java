@@ -0,0 +1,26 @@
+package com.premiumminds.vault.client;
+
+class KV2MetadataResponse {
+
+    public static class Data {
+        private Long currentVersion;
+
+        public Long getCurrentVersion() {
+            return currentVersion;
+        }
+
+        public void setCurrentVersion(Long currentVersion) {
+            this.currentVersion = currentVersion;
+        }
+    }
+
+    private Data data;
+
+    public Data getData() {
+        return data;
+    }
+
+    public void setData(Data data) {
+        this.data = data;
+    }
+}
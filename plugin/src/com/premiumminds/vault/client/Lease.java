@@ -1,5 +1,9 @@
 package com.premiumminds.vault.client;
 
+import java.time.Duration;
+
 public interface Lease {
     String leaseId();
+    Duration leaseDuration();
+    boolean renewable();
 }
@@ -3,6 +3,7 @@ package com.premiumminds.vault.client;
 class LeaseRequest {
 
     private String leaseId;
+    private Long increment;
 
     public String getLeaseId() {
         return leaseId;
@@ -11,4 +12,12 @@ class LeaseRequest {
     public void setLeaseId(String leaseId) {
         this.leaseId = leaseId;
     }
+
+    public Long getIncrement() {
+        return increment;
+    }
+
+    public void setIncrement(Long increment) {
+        this.increment = increment;
+    }
 }
@@ -0,0 +1,66 @@
+package com.premiumminds.vault.client;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Logs in to Vault with an auth method and keeps the client token in memory until it expires.
+ */
+public abstract class LoginVaultTokenLoader implements VaultTokenLoader {
+
+    private static final ILog logger = Platform.getLog(LoginVaultTokenLoader.class);
+
+    private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(10);
+
+    private final VaultClient vaultClient;
+    private final String mount;
+
+    private volatile String token;
+    private volatile Instant expiresAt;
+
+    protected LoginVaultTokenLoader(String address, Path certificate, String namespace, String mount) {
+        this.vaultClient = VaultClient.builder()
+                .withAddress(address)
+                .withCertificate(certificate)
+                .withNamespace(namespace)
+                .withTokenLoader(this)
+                .build();
+        this.mount = mount;
+    }
+
+    protected abstract String getLoginPath(String mount);
+
+    protected abstract Map<String, String> getLoginBody() throws Exception;
+
+    @Override
+    public String get() throws Exception {
+        final var cached = token;
+        if (cached != null && isValid(expiresAt)) {
+            return cached;
+        }
+        synchronized (this) {
+            if (token != null && isValid(expiresAt)) {
+                return token;
+            }
+            final var authToken = vaultClient.login(getLoginPath(mount), getLoginBody());
+            logger.info("Logged in to Vault at auth/" + mount);
+            expiresAt = authToken.leaseDuration().isZero() ? null : Instant.now().plus(authToken.leaseDuration());
+            token = authToken.clientToken();
+            return token;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        token = null;
+    }
+
+    private static boolean isValid(Instant expiresAt) {
+        return expiresAt == null || Instant.now().plus(EXPIRY_MARGIN).isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,192 @@
+package com.premiumminds.vault.client;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import java.net.HttpURLConnection;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What is known about one node of a Vault cluster: a moving average of its latency, its recent failures, and the
+ * outcome of the last {@code sys/health} probe. Nodes of multi-node address lists are probed in the background every
+ * {@code com.premiumminds.dbeaver.vault.healthCheckInterval} seconds while they are in use, so requests can be routed
+ * away from sealed or unreachable nodes before they time out.
+ */
+final class NodeHealth {
+
+    private static final ILog logger = Platform.getLog(NodeHealth.class);
+
+    private static final String PROP_HEALTH_CHECK_INTERVAL = "com.premiumminds.dbeaver.vault.healthCheckInterval";
+
+    private static final Duration HEALTH_CHECK_INTERVAL = Duration.ofSeconds(Math.max(1, Long.getLong(PROP_HEALTH_CHECK_INTERVAL, 10)));
+    private static final Duration HEALTH_CHECK_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration PROBE_WHILE_USED_WITHIN = Duration.ofMinutes(10);
+    private static final Duration RECENT_FAILURE = Duration.ofSeconds(30);
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final String HEALTH_PATH = "/v1/sys/health?standbyok=true&perfstandbyok=true";
+
+    private static final Map<String, NodeHealth> nodes = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        final var thread = new Thread(r, "Vault health checks");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        scheduler.scheduleWithFixedDelay(NodeHealth::probeAll,
+                HEALTH_CHECK_INTERVAL.toMillis(), HEALTH_CHECK_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    enum Status { UNKNOWN, ACTIVE, SEALED, UNREACHABLE }
+
+    private final String address;
+    private final CircuitBreaker circuitBreaker;
+
+    private volatile VaultTransport probeTransport;
+    private volatile Status status = Status.UNKNOWN;
+    private volatile long usedAtNanos = System.nanoTime();
+    private double latencyNanos = -1;
+    private int recentFailures;
+    private long failedAtNanos;
+
+    private NodeHealth(String address) {
+        this.address = address;
+        this.circuitBreaker = CircuitBreaker.forAddress(address);
+    }
+
+    static NodeHealth forAddress(String address) {
+        return nodes.computeIfAbsent(address, NodeHealth::new);
+    }
+
+    /**
+     * Probes this node in the background while it is being used.
+     */
+    void watch(Optional<Path> certificate) {
+        if (probeTransport == null) {
+            probeTransport = VaultTransport.forAddress(address, certificate);
+        }
+    }
+
+    String getAddress() {
+        return address;
+    }
+
+    synchronized void recordSuccess(Duration latency) {
+        usedAtNanos = System.nanoTime();
+        latencyNanos = latencyNanos < 0 ? latency.toNanos() : latencyNanos + EWMA_WEIGHT * (latency.toNanos() - latencyNanos);
+        recentFailures = 0;
+        if (status == Status.UNREACHABLE) {
+            status = Status.UNKNOWN;
+        }
+    }
+
+    synchronized void recordFailure() {
+        usedAtNanos = System.nanoTime();
+        failedAtNanos = usedAtNanos;
+        recentFailures++;
+    }
+
+    /**
+     * @return false if the last probe found the node sealed or unreachable, or its circuit breaker is open
+     */
+    boolean isAvailable() {
+        return status != Status.SEALED && status != Status.UNREACHABLE
+                && (circuitBreaker.getState() != CircuitBreaker.State.OPEN || circuitBreaker.retryIn().isZero());
+    }
+
+    /**
+     * @return whether the latency of the node was measured yet
+     */
+    synchronized boolean hasLatency() {
+        return latencyNanos >= 0;
+    }
+
+    /**
+     * @return whether the node failed in the last half minute
+     */
+    synchronized boolean hasFailures() {
+        return recentFailures() > 0;
+    }
+
+    /**
+     * @return lower is better: the average latency, made worse by each failure in the last half minute, or worse than
+     *         any measured node if it only ever failed
+     */
+    synchronized double score() {
+        final var failures = recentFailures();
+        if (latencyNanos < 0 && failures > 0) {
+            return Double.MAX_VALUE;
+        }
+        return Math.max(latencyNanos, 0) * (1 + failures) + failures * 1_000_000_000.0;
+    }
+
+    private int recentFailures() {
+        return System.nanoTime() - failedAtNanos < RECENT_FAILURE.toNanos() ? recentFailures : 0;
+    }
+
+    /**
+     * Picks the node to send a request to: available nodes first, and among those the earliest in the list unless a
+     * later one scores less than half as much, so traffic does not flip between similar nodes. Nodes are compared by
+     * score once both were measured or either recently failed, so a node nothing is known about yet neither wins nor
+     * loses by default.
+     */
+    static NodeHealth best(Collection<NodeHealth> candidates) {
+        NodeHealth best = null;
+        for (final var candidate : candidates) {
+            if (best == null
+                    || candidate.isAvailable() && !best.isAvailable()
+                    || candidate.isAvailable() == best.isAvailable() && comparable(candidate, best)
+                            && candidate.score() * 2 < best.score()) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static boolean comparable(NodeHealth a, NodeHealth b) {
+        return a.hasLatency() && b.hasLatency() || a.hasFailures() || b.hasFailures();
+    }
+
+    private static void probeAll() {
+        final var now = System.nanoTime();
+        for (final var node : nodes.values()) {
+            if (node.probeTransport != null && now - node.usedAtNanos < PROBE_WHILE_USED_WITHIN.toNanos()) {
+                node.probe();
+            }
+        }
+    }
+
+    private void probe() {
+        final var start = System.nanoTime();
+        probeTransport.sendAsync(new VaultHttpRequest("GET", HEALTH_PATH, Map.of(), null, true), HEALTH_CHECK_TIMEOUT)
+                .whenComplete((response, error) -> {
+                    final Status probed;
+                    if (response == null) {
+                        probed = Status.UNREACHABLE;
+                    } else if (response.statusCode() == HttpURLConnection.HTTP_OK) {
+                        probed = Status.ACTIVE;
+                        synchronized (this) {
+                            final var latency = System.nanoTime() - start;
+                            latencyNanos = latencyNanos < 0 ? latency : latencyNanos + EWMA_WEIGHT * (latency - latencyNanos);
+                        }
+                    } else {
+                        // 503 sealed, 501 not initialized, 472 disaster recovery secondary
+                        probed = Status.SEALED;
+                    }
+                    if (probed != status) {
+                        logger.info("Vault node " + address + " is now " + probed.name().toLowerCase()
+                                + (response != null ? " (HTTP " + response.statusCode() + ")" : ""));
+                        VaultMetrics.getInstance().counter("nodes." + probed.name().toLowerCase()).increment();
+                    }
+                    status = probed;
+                });
+    }
+}
@@ -0,0 +1,109 @@
+package com.premiumminds.vault.client;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token bucket spacing out the requests sent to a Vault address once it answered 429. Requests are not limited until
+ * then; the rate then starts from the {@code com.premiumminds.dbeaver.vault.rateLimit} system property, in requests
+ * per second, is halved whenever Vault answers 429, and grows back slowly with each accepted request, until requests
+ * are no longer limited once it is back at the property value.
+ */
+final class RateLimiter {
+
+    private static final ILog logger = Platform.getLog(RateLimiter.class);
+
+    private static final String PROP_RATE_LIMIT = "com.premiumminds.dbeaver.vault.rateLimit";
+
+    private static final double MAX_RATE = Math.max(1, Long.getLong(PROP_RATE_LIMIT, 10));
+    private static final double MIN_RATE = 0.2;
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double INCREASE_PER_SUCCESS = 0.1;
+    private static final Duration MIN_DECREASE_INTERVAL = Duration.ofSeconds(1);
+
+    private static final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final String address;
+
+    private boolean throttled;
+    private double rate = MAX_RATE;
+    private double tokens = MAX_RATE;
+    private long refilledAtNanos = System.nanoTime();
+    private long decreasedAtNanos = refilledAtNanos - MIN_DECREASE_INTERVAL.toNanos();
+
+    private RateLimiter(String address) {
+        this.address = address;
+    }
+
+    static RateLimiter forAddress(String address) {
+        return limiters.computeIfAbsent(address, RateLimiter::new);
+    }
+
+    /**
+     * Takes a token, going into debt if there is none left, so concurrent callers are queued one after the other.
+     *
+     * @return how long to wait before sending the request
+     */
+    synchronized Duration reserve() {
+        if (!throttled) {
+            return Duration.ZERO;
+        }
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return Duration.ZERO;
+        }
+        VaultMetrics.getInstance().counter("rateLimiter.delayed").increment();
+        return Duration.ofNanos((long) (-tokens / rate * 1_000_000_000L));
+    }
+
+    /**
+     * Gives back the token of a reservation whose request was not sent after all.
+     */
+    synchronized void cancel() {
+        if (throttled) {
+            tokens = Math.min(Math.max(1, rate), tokens + 1);
+        }
+    }
+
+    synchronized void onAccepted() {
+        if (!throttled) {
+            return;
+        }
+        rate = Math.min(MAX_RATE, rate + INCREASE_PER_SUCCESS);
+        if (rate >= MAX_RATE) {
+            throttled = false;
+            logger.info("Vault at " + address + " is no longer rate limiting requests");
+        }
+    }
+
+    synchronized void onThrottled() {
+        final var now = System.nanoTime();
+        if (!throttled) {
+            throttled = true;
+            rate = MAX_RATE;
+            tokens = 0;
+            refilledAtNanos = now;
+        }
+        // all requests in flight when Vault started throttling get a 429, only slow down once for them
+        if (now - decreasedAtNanos < MIN_DECREASE_INTERVAL.toNanos()) {
+            return;
+        }
+        refill();
+        decreasedAtNanos = now;
+        rate = Math.max(MIN_RATE, rate * DECREASE_FACTOR);
+        tokens = Math.min(tokens, 0);
+        VaultMetrics.getInstance().counter("rateLimiter.decreased").increment();
+        logger.info("Vault at " + address + " is rate limiting requests, slowing down to " + String.format("%.1f", rate) + " requests per second");
+    }
+
+    private void refill() {
+        final var now = System.nanoTime();
+        tokens = Math.min(Math.max(1, rate), tokens + (now - refilledAtNanos) / 1_000_000_000.0 * rate);
+        refilledAtNanos = now;
+    }
+}
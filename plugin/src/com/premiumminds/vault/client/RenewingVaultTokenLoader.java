@@ -0,0 +1,200 @@
+package com.premiumminds.vault.client;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import java.net.HttpURLConnection;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the lifecycle of the token returned by another {@link VaultTokenLoader}. Each new token is looked up once with
+ * {@code auth/token/lookup-self}; renewable tokens are then renewed with {@code auth/token/renew-self} ahead of expiry,
+ * and failed renewals are tried again until expiry unless Vault refuses them. A warning is logged shortly before a
+ * token can no longer be used, and expired tokens are rejected without calling Vault.
+ */
+public class RenewingVaultTokenLoader implements VaultTokenLoader {
+
+    private static final ILog logger = Platform.getLog(RenewingVaultTokenLoader.class);
+
+    private static final double RENEW_FRACTION = 2.0 / 3;
+    private static final Duration EXPIRY_WARNING = Duration.ofMinutes(5);
+    private static final Duration LOOKUP_RETRY = Duration.ofMinutes(1);
+    private static final Duration RENEW_RETRY = Duration.ofSeconds(5);
+    private static final double RENEW_RETRY_FRACTION = 0.5;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        final var thread = new Thread(r, "Vault token renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final VaultTokenLoader delegate;
+    private final String address;
+    private final Path certificate;
+    private final String namespace;
+
+    private volatile TokenState state;
+    private int renewFailures;
+
+    /**
+     * @param lookupRetryAt when to look up a token again whose lookup failed, null once it was looked up
+     */
+    private record TokenState(String token, Instant expiresAt, ScheduledFuture<?> task, Instant lookupRetryAt) {
+
+        TokenState(String token, Instant expiresAt, ScheduledFuture<?> task) {
+            this(token, expiresAt, task, null);
+        }
+
+        boolean isCurrent(String token) {
+            return this.token.equals(token) && (lookupRetryAt == null || Instant.now().isBefore(lookupRetryAt));
+        }
+    }
+
+    public RenewingVaultTokenLoader(VaultTokenLoader delegate, String address, Path certificate, String namespace) {
+        this.delegate = delegate;
+        this.address = address;
+        this.certificate = certificate;
+        this.namespace = namespace;
+    }
+
+    @Override
+    public String get() throws Exception {
+        final var token = delegate.get();
+        var current = state;
+        if (current == null || !current.isCurrent(token)) {
+            current = track(token);
+        }
+        if (current.expiresAt() != null && !Instant.now().isBefore(current.expiresAt())) {
+            delegate.invalidate();
+            throw new Exception("Vault token expired at " + current.expiresAt() + ", log in to Vault again");
+        }
+        return token;
+    }
+
+    @Override
+    public void invalidate() {
+        delegate.invalidate();
+    }
+
+    private synchronized TokenState track(String token) throws Exception {
+        final var current = state;
+        if (current != null && current.isCurrent(token)) {
+            return current;
+        }
+        if (current != null && current.task() != null) {
+            current.task().cancel(false);
+        }
+        renewFailures = 0;
+
+        final TokenInfo tokenInfo;
+        try {
+            tokenInfo = selfClient(token).lookupSelf();
+        } catch (VaultException e) {
+            if (e.getStatusCode() == HttpURLConnection.HTTP_FORBIDDEN) {
+                delegate.invalidate();
+                throw new Exception("Vault token is not valid, log in to Vault again", e);
+            }
+            return lookupFailed(token, e);
+        } catch (Exception e) {
+            return lookupFailed(token, e);
+        }
+
+        if (tokenInfo.ttl().isZero()) {
+            state = new TokenState(token, null, null);
+        } else {
+            state = schedule(token, Instant.now().plus(tokenInfo.ttl()), tokenInfo.renewable());
+        }
+        return state;
+    }
+
+    /**
+     * Uses the token as is, and looks it up again only after {@link #LOOKUP_RETRY}, so a slow or unavailable Vault
+     * is not asked on every request.
+     */
+    private TokenState lookupFailed(String token, Exception e) {
+        logger.warn("Unable to look up Vault token, trying again in " + LOOKUP_RETRY.toSeconds() + "s: " + e.getMessage(), e);
+        state = new TokenState(token, null, null, Instant.now().plus(LOOKUP_RETRY));
+        return state;
+    }
+
+    private TokenState schedule(String token, Instant expiresAt, boolean renewable) {
+        final var remaining = Duration.between(Instant.now(), expiresAt);
+        final ScheduledFuture<?> task;
+        if (renewable) {
+            final var delay = Math.max(0, (long) (remaining.toMillis() * RENEW_FRACTION));
+            task = scheduler.schedule(() -> renew(token), delay, TimeUnit.MILLISECONDS);
+        } else {
+            final var delay = Math.max(0, remaining.minus(EXPIRY_WARNING).toMillis());
+            task = scheduler.schedule(() -> warn(token, expiresAt), delay, TimeUnit.MILLISECONDS);
+        }
+        return new TokenState(token, expiresAt, task);
+    }
+
+    private synchronized void renew(String token) {
+        final var current = state;
+        if (current == null || !current.token().equals(token)) {
+            return;
+        }
+        try {
+            final var renewed = selfClient(token).renewSelf();
+            renewFailures = 0;
+            final var expiresAt = Instant.now().plus(renewed.ttl());
+            if (renewed.renewable() && expiresAt.isAfter(current.expiresAt())) {
+                state = schedule(token, expiresAt, true);
+            } else {
+                state = schedule(token, expiresAt, false);
+            }
+        } catch (VaultException e) {
+            if (e.getStatusCode() == HttpURLConnection.HTTP_FORBIDDEN || e.getStatusCode() == HttpURLConnection.HTTP_BAD_REQUEST) {
+                // Vault refuses to renew this token, it will not change its mind
+                logger.warn("Vault token cannot be renewed: " + e.getMessage(), e);
+                state = schedule(token, current.expiresAt(), false);
+            } else {
+                retryRenewal(token, current.expiresAt(), e);
+            }
+        } catch (Exception e) {
+            retryRenewal(token, current.expiresAt(), e);
+        }
+    }
+
+    /**
+     * Tries renewing again after a failure that may not last, sooner as the expiry gets closer, until the token
+     * expires.
+     */
+    private void retryRenewal(String token, Instant expiresAt, Exception e) {
+        final var remaining = Duration.between(Instant.now(), expiresAt);
+        if (remaining.isNegative() || remaining.isZero()) {
+            logger.warn("Problem renewing Vault token, it has expired: " + e.getMessage(), e);
+            state = new TokenState(token, expiresAt, null);
+            return;
+        }
+        final var backoff = RENEW_RETRY.multipliedBy(1L << Math.min(renewFailures++, 10));
+        final var fraction = Duration.ofMillis((long) (remaining.toMillis() * RENEW_RETRY_FRACTION));
+        final var delay = backoff.compareTo(fraction) < 0 ? backoff : fraction;
+        logger.warn("Problem renewing Vault token, trying again in " + Math.max(1, delay.toSeconds()) + "s: " + e.getMessage(), e);
+        final var task = scheduler.schedule(() -> renew(token), delay.toMillis(), TimeUnit.MILLISECONDS);
+        state = new TokenState(token, expiresAt, task);
+    }
+
+    private void warn(String token, Instant expiresAt) {
+        final var current = state;
+        if (current != null && current.token().equals(token)) {
+            logger.warn("Vault token expires at " + expiresAt + " and cannot be renewed, log in to Vault again");
+        }
+    }
+
+    private VaultClient selfClient(String token) {
+        return VaultClient.builder()
+                .withAddress(address)
+                .withCertificate(certificate)
+                .withNamespace(namespace)
+                .withTokenLoader(() -> token)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.premiumminds.vault.client;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed Vault request is sent again, and after how long. Backoff uses decorrelated jitter, so
+ * clients that failed together do not retry together, and a {@code Retry-After} header takes precedence. The number
+ * of attempts and the longest wait are configured by the {@code com.premiumminds.dbeaver.vault.retryMaxAttempts}
+ * and {@code com.premiumminds.dbeaver.vault.retryMaxBackoff} (seconds) system properties.
+ */
+final class RetryPolicy {
+
+    private static final String PROP_MAX_ATTEMPTS = "com.premiumminds.dbeaver.vault.retryMaxAttempts";
+    private static final String PROP_MAX_BACKOFF = "com.premiumminds.dbeaver.vault.retryMaxBackoff";
+
+    static final int MAX_ATTEMPTS = (int) Math.max(1, Long.getLong(PROP_MAX_ATTEMPTS, 3));
+    private static final Duration BASE_BACKOFF = Duration.ofMillis(200);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(Long.getLong(PROP_MAX_BACKOFF, 10));
+
+    static final int TOO_MANY_REQUESTS = 429;
+    private static final int PRECONDITION_FAILED = 412;
+
+    private RetryPolicy() {
+    }
+
+    /**
+     * Rate limiting, a performance standby that is behind (412) and failed connections mean Vault did not process
+     * the request, so even requests with side effects can be sent again. Server errors and timeouts may come after
+     * the request was processed, and are only retried for idempotent requests.
+     */
+    static boolean isRetryable(VaultHttpResponse response, Throwable error, boolean idempotent) {
+        if (response != null) {
+            final var status = response.statusCode();
+            if (status == TOO_MANY_REQUESTS || status == PRECONDITION_FAILED) {
+                return true;
+            }
+            return idempotent && status >= 500 && status != 501;
+        }
+        final var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+            return true;
+        }
+        return idempotent && cause instanceof IOException;
+    }
+
+    /**
+     * @param previous the previous wait, or zero before the first retry
+     */
+    static Duration backoff(Duration previous, VaultHttpResponse response) {
+        final var retryAfter = response == null ? Optional.<Duration>empty() : retryAfter(response);
+        if (retryAfter.isPresent()) {
+            return retryAfter.get().compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : retryAfter.get();
+        }
+        final var base = BASE_BACKOFF.toMillis();
+        final var upper = Math.max(base + 1, Math.max(previous.toMillis(), base) * 3);
+        return Duration.ofMillis(Math.min(MAX_BACKOFF.toMillis(), ThreadLocalRandom.current().nextLong(base, upper)));
+    }
+
+    /**
+     * @return the wait requested by a {@code Retry-After} header, given in seconds or as an HTTP date
+     */
+    private static Optional<Duration> retryAfter(VaultHttpResponse response) {
+        return response.header("Retry-After").map(String::trim).flatMap(value -> {
+            try {
+                return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(value))));
+            } catch (NumberFormatException e) {
+                try {
+                    final var at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                    final var wait = Duration.between(Instant.now(), at);
+                    return Optional.of(wait.isNegative() ? Duration.ZERO : wait);
+                } catch (DateTimeParseException ignored) {
+                    return Optional.empty();
+                }
+            }
+        });
+    }
+}
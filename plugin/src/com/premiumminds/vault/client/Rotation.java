@@ -0,0 +1,14 @@
+package com.premiumminds.vault.client;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Rotation schedule of static database credentials, as returned with them by Vault.
+ */
+public interface Rotation {
+    /** time left until Vault rotates the password, when the credentials were read */
+    Duration ttl();
+    Duration rotationPeriod();
+    Instant lastVaultRotation();
+}
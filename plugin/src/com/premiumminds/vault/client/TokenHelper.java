@@ -0,0 +1,150 @@
+package com.premiumminds.vault.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a Vault Token Helper. Concurrent lookups for the same helper and Vault address share one execution, and its
+ * output is reused for a short while, configured in seconds by the
+ * {@code com.premiumminds.dbeaver.vault.tokenHelperTtl} system property.
+ */
+public final class TokenHelper {
+
+    private static final String ENV_VAULT_ADDR = "VAULT_ADDR";
+    private static final String PROP_TOKEN_HELPER_TTL = "com.premiumminds.dbeaver.vault.tokenHelperTtl";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration CACHE_TTL = Duration.ofSeconds(Long.getLong(PROP_TOKEN_HELPER_TTL, 30));
+
+    private static final Map<HelperKey, TokenHelper> helpers = new ConcurrentHashMap<>();
+    private static final ExecutorService streamReaders = Executors.newCachedThreadPool(r -> {
+        final var thread = new Thread(r, "Vault token helper reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final LongAdder invocations = VaultMetrics.getInstance().counter("tokenHelper.invocations");
+    private static final LongAdder avoidedInvocations = VaultMetrics.getInstance().counter("tokenHelper.avoidedInvocations");
+
+    private final String command;
+    private final String vaultAddress;
+
+    private CompletableFuture<String> inFlight;
+    private String token;
+    private long expiresAtNanos;
+
+    private record HelperKey(String command, String vaultAddress) {
+    }
+
+    private TokenHelper(String command, String vaultAddress) {
+        this.command = command;
+        this.vaultAddress = vaultAddress;
+    }
+
+    static TokenHelper get(String command, String vaultAddress) {
+        return helpers.computeIfAbsent(new HelperKey(command, vaultAddress), k -> new TokenHelper(k.command(), k.vaultAddress()));
+    }
+
+    public static long getInvocations() {
+        return invocations.sum();
+    }
+
+    public static long getAvoidedInvocations() {
+        return avoidedInvocations.sum();
+    }
+
+    String getToken() throws Exception {
+        final CompletableFuture<String> future;
+        final boolean owner;
+        synchronized (this) {
+            if (token != null && System.nanoTime() - expiresAtNanos < 0) {
+                avoidedInvocations.increment();
+                return token;
+            }
+            if (inFlight != null) {
+                avoidedInvocations.increment();
+                future = inFlight;
+                owner = false;
+            } else {
+                future = new CompletableFuture<>();
+                inFlight = future;
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            final var output = run();
+            synchronized (this) {
+                token = output;
+                expiresAtNanos = System.nanoTime() + CACHE_TTL.toNanos();
+                inFlight = null;
+            }
+            future.complete(output);
+            return output;
+        } catch (Exception e) {
+            synchronized (this) {
+                inFlight = null;
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    synchronized void invalidate() {
+        token = null;
+    }
+
+    private String run() throws IOException, InterruptedException, ExecutionException {
+        invocations.increment();
+
+        final ProcessBuilder processBuilder = new ProcessBuilder();
+        processBuilder.environment().putIfAbsent(ENV_VAULT_ADDR, vaultAddress);
+        final Process process = processBuilder
+                .command(command, "get")
+                .start();
+
+        final var err = CompletableFuture.supplyAsync(() -> read(process.getErrorStream()), streamReaders);
+        final var out = CompletableFuture.supplyAsync(() -> read(process.getInputStream()), streamReaders);
+
+        if (!process.waitFor(TIMEOUT.toSeconds(), TimeUnit.SECONDS)){
+            process.destroyForcibly();
+            throw new RuntimeException("Failure running Vault Token Helper: " + command + ", took too long to respond.");
+        }
+
+        final var errOutput = err.get();
+        if (errOutput != null && !errOutput.isBlank()){
+            throw new RuntimeException("Failure running Vault Token Helper: " + command + ": " + errOutput);
+        }
+        return out.get();
+    }
+
+    private static String read(InputStream stream) {
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(stream))) {
+            return bufferedReader.lines().collect(Collectors.joining());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Problem reading from Vault Token Helper: " + e.getMessage(), e);
+        }
+    }
+}
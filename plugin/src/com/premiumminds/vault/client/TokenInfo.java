@@ -0,0 +1,9 @@
+package com.premiumminds.vault.client;
+
+import java.time.Duration;
+
+/**
+ * @param ttl time left before the token expires, zero if it never expires
+ */
+public record TokenInfo(Duration ttl, boolean renewable) {
+}
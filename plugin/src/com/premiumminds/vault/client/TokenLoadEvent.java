@@ -0,0 +1,24 @@
+package com.premiumminds.vault.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for reading the Vault token from a file or from the Vault Token Helper.
+ */
+@Name("com.premiumminds.vault.TokenLoad")
+@Label("Vault Token Load")
+@Category("Vault")
+@Description("Vault token read from a file or the Token Helper")
+final class TokenLoadEvent extends jdk.jfr.Event {
+
+    @Label("Source")
+    @Description("file or helper")
+    String source;
+
+    @Label("Location")
+    @Description("Token file or Token Helper command")
+    String location;
+}
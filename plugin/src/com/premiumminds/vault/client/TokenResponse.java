@@ -0,0 +1,83 @@
+package com.premiumminds.vault.client;
+
+class TokenResponse {
+
+    public static class Data {
+        private Long ttl;
+        private Boolean renewable;
+        private String expireTime;
+
+        public Long getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Long ttl) {
+            this.ttl = ttl;
+        }
+
+        public Boolean getRenewable() {
+            return renewable;
+        }
+
+        public void setRenewable(Boolean renewable) {
+            this.renewable = renewable;
+        }
+
+        public String getExpireTime() {
+            return expireTime;
+        }
+
+        public void setExpireTime(String expireTime) {
+            this.expireTime = expireTime;
+        }
+    }
+
+    public static class Auth {
+        private String clientToken;
+        private Long leaseDuration;
+        private Boolean renewable;
+
+        public String getClientToken() {
+            return clientToken;
+        }
+
+        public void setClientToken(String clientToken) {
+            this.clientToken = clientToken;
+        }
+
+        public Long getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Long leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+
+        public Boolean getRenewable() {
+            return renewable;
+        }
+
+        public void setRenewable(Boolean renewable) {
+            this.renewable = renewable;
+        }
+    }
+
+    private Data data;
+    private Auth auth;
+
+    public Data getData() {
+        return data;
+    }
+
+    public void setData(Data data) {
+        this.data = data;
+    }
+
+    public Auth getAuth() {
+        return auth;
+    }
+
+    public void setAuth(Auth auth) {
+        this.auth = auth;
+    }
+}
@@ -0,0 +1,269 @@
+package com.premiumminds.vault.client;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Talks HTTP/1.1 to a Vault Agent listening on a Unix domain socket, given as {@code unix:///path/to/agent.sock}.
+ * Connections are kept alive and reused between requests.
+ */
+class UnixSocketTransport implements VaultTransport {
+
+    private static final String UNIX_SCHEME = "unix";
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+
+    private static final Map<Path, UnixSocketTransport> transports = new ConcurrentHashMap<>();
+    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        final var thread = new Thread(r, "Vault Agent socket");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final UnixDomainSocketAddress socketAddress;
+    private final Deque<Connection> idleConnections = new ConcurrentLinkedDeque<>();
+
+    private UnixSocketTransport(Path socket) {
+        this.socketAddress = UnixDomainSocketAddress.of(socket);
+    }
+
+    static boolean isUnixAddress(String address) {
+        return address.regionMatches(true, 0, UNIX_SCHEME + ":", 0, UNIX_SCHEME.length() + 1);
+    }
+
+    static UnixSocketTransport forAddress(String address) {
+        final var socket = Path.of(URI.create(address).getPath());
+        return transports.computeIfAbsent(socket, UnixSocketTransport::new);
+    }
+
+    @Override
+    public CompletableFuture<VaultHttpResponse> sendAsync(VaultHttpRequest request, Duration timeout) {
+        final var connection = new AtomicReference<Connection>();
+        final var result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return send(request, connection);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((r, e) -> {
+            // unblocks a read that is still waiting after a timeout or a cancel
+            final var inUse = connection.get();
+            if (e != null && inUse != null) {
+                inUse.close();
+            }
+        });
+        return result;
+    }
+
+    private VaultHttpResponse send(VaultHttpRequest request, AtomicReference<Connection> inUse) throws IOException {
+        final var idle = idleConnections.pollFirst();
+        if (idle != null) {
+            inUse.set(idle);
+            try {
+                return exchange(idle, request);
+            } catch (IOException e) {
+                // the agent may have closed the idle connection before reading the request, try again on a new one
+                // only if it cannot have been handled
+                if (!request.idempotent() || !idle.isStale(e)) {
+                    throw e;
+                }
+            }
+        }
+        final var connection = new Connection(SocketChannel.open(socketAddress));
+        inUse.set(connection);
+        return exchange(connection, request);
+    }
+
+    private VaultHttpResponse exchange(Connection connection, VaultHttpRequest request) throws IOException {
+        boolean reusable = false;
+        try {
+            connection.write(request);
+            final var response = connection.read(request.method());
+            reusable = response.reusable();
+            return response.response();
+        } finally {
+            if (reusable && idleConnections.size() < MAX_IDLE_CONNECTIONS) {
+                idleConnections.addFirst(connection);
+            } else {
+                connection.close();
+            }
+        }
+    }
+
+    private record ReadResponse(VaultHttpResponse response, boolean reusable) {
+    }
+
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        private final InputStream in;
+        private final OutputStream out;
+
+        private boolean written;
+        private boolean responseStarted;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            this.in = new BufferedInputStream(Channels.newInputStream(channel));
+            this.out = Channels.newOutputStream(channel);
+        }
+
+        void write(VaultHttpRequest request) throws IOException {
+            written = false;
+            responseStarted = false;
+            final var body = request.body() == null ? new byte[0] : request.body().getBytes(StandardCharsets.UTF_8);
+            final var head = new StringBuilder()
+                    .append(request.method()).append(' ').append(request.path()).append(" HTTP/1.1\r\n")
+                    .append("Host: localhost\r\n")
+                    .append("Connection: keep-alive\r\n")
+                    .append("Content-Length: ").append(body.length).append("\r\n");
+            if (body.length > 0) {
+                head.append("Content-Type: application/json\r\n");
+            }
+            request.headers().forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+            head.append("\r\n");
+
+            out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+            out.write(body);
+            out.flush();
+            written = true;
+        }
+
+        /**
+         * @return whether the failure shows the agent closed the connection before answering: the request could not
+         * be written, or the connection ended before any byte of the response
+         */
+        boolean isStale(IOException e) {
+            return !written || e instanceof EOFException && !responseStarted;
+        }
+
+        ReadResponse read(String method) throws IOException {
+            var statusParts = readStatusLine();
+            var statusCode = Integer.parseInt(statusParts[1]);
+            while (statusCode >= 100 && statusCode < 200) {
+                // interim responses have no body and are followed by the actual response
+                for (var line = readLine(); !line.isEmpty(); line = readLine()) {
+                    // their headers are not used
+                }
+                statusParts = readStatusLine();
+                statusCode = Integer.parseInt(statusParts[1]);
+            }
+
+            final Map<String, List<String>> headers = new HashMap<>();
+            for (var line = readLine(); !line.isEmpty(); line = readLine()) {
+                final var separator = line.indexOf(':');
+                if (separator > 0) {
+                    headers.computeIfAbsent(line.substring(0, separator).trim().toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                            .add(line.substring(separator + 1).trim());
+                }
+            }
+
+            final var response = new VaultHttpResponse(statusCode, headers, null);
+            final var closing = "close".equalsIgnoreCase(response.header("connection").orElse(""))
+                    || !statusParts[0].equals("HTTP/1.1");
+
+            final byte[] body;
+            final var transferEncoding = response.header("transfer-encoding");
+            final var contentLength = response.header("content-length");
+            if ("HEAD".equals(method) || statusCode == HttpURLConnection.HTTP_NO_CONTENT || statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                body = new byte[0];
+            } else if (transferEncoding.isPresent() && transferEncoding.get().toLowerCase(Locale.ROOT).contains("chunked")) {
+                body = readChunked();
+            } else if (contentLength.isPresent()) {
+                body = readFully(Integer.parseInt(contentLength.get()));
+            } else if (closing) {
+                body = in.readAllBytes();
+            } else {
+                body = new byte[0];
+            }
+            final var reusable = !closing;
+
+            return new ReadResponse(
+                    new VaultHttpResponse(statusCode, headers, body),
+                    reusable);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing else to do with a broken connection
+            }
+        }
+
+        private String[] readStatusLine() throws IOException {
+            final var statusLine = readLine();
+            final var statusParts = statusLine.split(" ", 3);
+            if (statusParts.length < 2 || !statusParts[0].startsWith("HTTP/1.")) {
+                throw new IOException("Invalid HTTP response from Vault Agent: " + statusLine);
+            }
+            return statusParts;
+        }
+
+        private byte[] readChunked() throws IOException {
+            final var body = new ByteArrayOutputStream();
+            while (true) {
+                final var sizeLine = readLine();
+                final var extension = sizeLine.indexOf(';');
+                final var size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+                if (size == 0) {
+                    for (var line = readLine(); !line.isEmpty(); line = readLine()) {
+                        // trailers are not used
+                    }
+                    return body.toByteArray();
+                }
+                body.write(readFully(size));
+                readLine();
+            }
+        }
+
+        private byte[] readFully(int length) throws IOException {
+            final var bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException("Vault Agent closed the connection");
+            }
+            return bytes;
+        }
+
+        private String readLine() throws IOException {
+            final var line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b == -1) {
+                    throw new EOFException("Vault Agent closed the connection");
+                }
+                responseStarted = true;
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
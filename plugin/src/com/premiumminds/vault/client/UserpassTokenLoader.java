@@ -0,0 +1,30 @@
+package com.premiumminds.vault.client;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class UserpassTokenLoader extends LoginVaultTokenLoader {
+
+    public static final String DEFAULT_MOUNT = "userpass";
+
+    private final String username;
+    private final String password;
+
+    public UserpassTokenLoader(String address, Path certificate, String namespace, String mount, String username, String password) {
+        super(address, certificate, namespace, mount);
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    protected String getLoginPath(String mount) {
+        return "auth/" + mount + "/login/" + URLEncoder.encode(username, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected Map<String, String> getLoginBody() {
+        return Map.of("password", password);
+    }
+}
@@ -0,0 +1,33 @@
+package com.premiumminds.vault.client;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Vault address setting holds one address, or several nodes of the same cluster separated by commas, in order
+ * of preference.
+ */
+public final class VaultAddresses {
+
+    private VaultAddresses() {
+    }
+
+    public static List<String> parse(String addresses) {
+        final var nodes = Arrays.stream(addresses.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .distinct()
+                .toList();
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("No Vault address in \"" + addresses + "\"");
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the most preferred node, for tools that only take one address
+     */
+    public static String first(String addresses) {
+        return parse(addresses).get(0);
+    }
+}
@@ -1,48 +1,80 @@
 package com.premiumminds.vault.client;
 
 import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.premiumminds.dbeaver.vault.VaultAuthModel;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManagerFactory;
-
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.Platform;
 
-import java.io.FileInputStream;
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Path;
-import java.security.KeyStore;
-import java.security.SecureRandom;
-import java.security.cert.Certificate;
-import java.security.cert.CertificateFactory;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Talks to a Vault server, or to the nodes of a Vault cluster given as a comma separated address list, in which case
+ * each request goes to the healthiest node and fails over to the next one.
+ */
 public class VaultClient {
 
     private static final ILog logger = Platform.getLog(VaultClient.class);
     
     private static final String X_VAULT_TOKEN = "X-Vault-Token";
     private static final String X_VAULT_NAMESPACE = "X-Vault-Namespace";
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    private static final String PROP_FAILOVER_TIMEOUT = "com.premiumminds.dbeaver.vault.failoverTimeout";
+    private static final Duration FAILOVER_TIMEOUT = Duration.ofSeconds(Long.getLong(PROP_FAILOVER_TIMEOUT, 10));
+
+    private static final Gson gson = new GsonBuilder()
+            .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+            .create();
 
-    private final String address;
-    private final Optional<Path> certificate;
+    private final List<Node> nodes;
     private final Optional<String> namespace;
     private final VaultTokenLoader vaultTokenLoader;
+    /** bound on a request, across all its attempts and the waits between them */
+    private final Duration timeout;
+    /** bound on a single attempt */
+    private final Duration attemptTimeout;
+
+    private record Node(String address, VaultTransport transport, CircuitBreaker circuitBreaker, RateLimiter rateLimiter, NodeHealth health) {
+    }
 
-    private VaultClient(String address, Optional<Path> certificate, Optional<String> namespace, VaultTokenLoader vaultTokenLoader) {
-        this.address = address;
-        this.certificate = certificate;
+    private VaultClient(String address, Optional<Path> certificate, Optional<String> namespace, VaultTokenLoader vaultTokenLoader, Duration timeout) {
+        final var addresses = VaultAddresses.parse(address);
+        this.nodes = addresses.stream()
+                .map(node -> new Node(node,
+                        VaultTransport.forAddress(node, certificate),
+                        CircuitBreaker.forAddress(node),
+                        RateLimiter.forAddress(node),
+                        NodeHealth.forAddress(node)))
+                .toList();
+        if (nodes.size() > 1) {
+            nodes.forEach(node -> node.health().watch(certificate));
+        }
         this.namespace = namespace;
         this.vaultTokenLoader = vaultTokenLoader;
+        // leave time to fail over to another node within the overall timeout
+        this.timeout = timeout;
+        this.attemptTimeout = nodes.size() > 1 && timeout.compareTo(FAILOVER_TIMEOUT) > 0 ? FAILOVER_TIMEOUT : timeout;
     }
 
     public static Builder builder() {
@@ -54,6 +86,7 @@ public class VaultClient {
         private Path certificate;
         private String namespace;
         private VaultTokenLoader vaultTokenLoader;
+        private Duration timeout;
 
         private Builder() {
         }
@@ -77,6 +110,11 @@ public class VaultClient {
             return this;
         }
 
+        public Builder withTimeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
         public VaultClient build() {
             if (this.address == null) {
                 throw new IllegalStateException("address is null");
@@ -87,130 +125,529 @@ public class VaultClient {
             return new VaultClient(address,
                     Optional.ofNullable(certificate),
                     Optional.ofNullable(namespace),
-                    vaultTokenLoader);
+                    vaultTokenLoader,
+                    Optional.ofNullable(timeout).orElse(DEFAULT_TIMEOUT));
         }
     }
 
-    public Optional<String> getLease(
+    public Optional<Lease> getLease(
             final String leaseId)
             throws Exception
     {
+        return Futures.await(getLeaseAsync(leaseId));
+    }
 
-        final var uri = URI.create(address).resolve("/v1/sys/leases/lookup");
+    public CompletableFuture<Optional<Lease>> getLeaseAsync(
+            final String leaseId)
+    {
 
-        final var gson = new GsonBuilder()
-                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-                .create();
+        final var leaseRequest = new LeaseRequest();
+        leaseRequest.setLeaseId(leaseId);
+
+        return Futures.map(sendHedgedAsync("leases.lookup", "POST", "/v1/sys/leases/lookup", gson.toJson(leaseRequest)), response -> {
+            if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                logger.info("No lease found for " + leaseId);
+                return Optional.empty();
+            }
+
+            return Optional.ofNullable(gson.fromJson(response.bodyReader(), LeaseResponse.class).getData())
+                    .map(data -> new LeaseStatus(
+                            data.getId(),
+                            Duration.ofSeconds(Optional.ofNullable(data.getTtl()).orElse(0L)),
+                            Boolean.TRUE.equals(data.getRenewable())));
+        });
+    }
+
+    public Lease renewLease(
+            final String leaseId,
+            final Duration increment)
+            throws Exception
+    {
 
         final var leaseRequest = new LeaseRequest();
         leaseRequest.setLeaseId(leaseId);
+        leaseRequest.setIncrement(increment.toSeconds());
 
-        final var httpClient = getClient(certificate);
-        final var token = vaultTokenLoader.get();
+        final var response = send("leases.renew", "PUT", "/v1/sys/leases/renew", gson.toJson(leaseRequest), true, false);
 
-        final var builder = HttpRequest.newBuilder()
-                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(leaseRequest)))
-                .header(X_VAULT_TOKEN, token)
-                .uri(uri);
-        namespace.ifPresent(s -> builder.header(X_VAULT_NAMESPACE, s));
-        final var request = builder.build();
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            throw new RuntimeException("Problem renewing lease " + leaseId + ": " + response.bodyAsString());
+        }
 
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        final var leaseResponse = gson.fromJson(response.bodyReader(), LeaseResponse.class);
+        return new LeaseStatus(
+                leaseResponse.getLeaseId(),
+                Duration.ofSeconds(Optional.ofNullable(leaseResponse.getLeaseDuration()).orElse(0L)),
+                Boolean.TRUE.equals(leaseResponse.getRenewable()));
+    }
+
+    public CompletableFuture<Void> revokeLeaseAsync(
+            final String leaseId)
+    {
+        final var leaseRequest = new LeaseRequest();
+        leaseRequest.setLeaseId(leaseId);
+
+        return Futures.map(sendAsync("leases.revoke", "PUT", "/v1/sys/leases/revoke", gson.toJson(leaseRequest), true, true), response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw new VaultException(response.statusCode(), "Problem revoking lease " + leaseId + ": " + response.bodyAsString());
+            }
+            return null;
+        });
+    }
+
+    public TokenInfo lookupSelf() throws Exception {
+        final var response = send("token.lookup-self", "GET", "/v1/auth/token/lookup-self", null, true, true);
 
         if (response.statusCode() != HttpURLConnection.HTTP_OK) {
-            logger.info("No lease found for " + leaseId);
-            return Optional.empty();
+            throw new VaultException(response.statusCode(), "Problem looking up Vault token: " + response.bodyAsString());
         }
 
-        return Optional.of(gson.fromJson(response.body(), LeaseResponse.class)).map(LeaseResponse::getLeaseId);
+        final var data = gson.fromJson(response.bodyReader(), TokenResponse.class).getData();
+        return new TokenInfo(
+                Duration.ofSeconds(Optional.ofNullable(data.getTtl()).orElse(0L)),
+                Boolean.TRUE.equals(data.getRenewable()));
     }
 
-    public Credentials getCredentials(
-            final String secret,
-            final Request credentialsRequest)
+    public TokenInfo renewSelf() throws Exception {
+        final var response = send("token.renew-self", "POST", "/v1/auth/token/renew-self", "{}", true, false);
+
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            throw new VaultException(response.statusCode(), "Problem renewing Vault token: " + response.bodyAsString());
+        }
+
+        final var auth = gson.fromJson(response.bodyReader(), TokenResponse.class).getAuth();
+        return new TokenInfo(
+                Duration.ofSeconds(Optional.ofNullable(auth.getLeaseDuration()).orElse(0L)),
+                Boolean.TRUE.equals(auth.getRenewable()));
+    }
+
+    public AuthToken login(
+            final String path,
+            final Map<String, String> body)
             throws Exception
     {
-        final var uri = URI.create(address).resolve("/v1/").resolve(secret);
 
-        final var httpClient = getClient(certificate);
-        final var token = vaultTokenLoader.get();
+        final var response = send("login", "POST", URI.create("/v1/").resolve(path).toString(), gson.toJson(body), false, false);
+
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            throw new VaultException(response.statusCode(), "Problem logging in to Vault: " + response.bodyAsString());
+        }
 
-        final var builder = HttpRequest.newBuilder()
-                .GET()
-                .header(X_VAULT_TOKEN, token)
-                .uri(uri);
-        namespace.ifPresent(s -> builder.header(X_VAULT_NAMESPACE, s));
-        final var request = builder.build();
+        final var auth = gson.fromJson(response.bodyReader(), TokenResponse.class).getAuth();
+        if (auth == null || auth.getClientToken() == null) {
+            throw new VaultException(response.statusCode(), "Vault login did not return a token");
+        }
+        return new AuthToken(
+                auth.getClientToken(),
+                Duration.ofSeconds(Optional.ofNullable(auth.getLeaseDuration()).orElse(0L)),
+                Boolean.TRUE.equals(auth.getRenewable()));
+    }
 
-        final var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Reads the current version of a KV version 2 secret from its metadata, which is much smaller than the secret.
+     *
+     * @param secret path of the secret data, as in {@code <mount>/data/<path>}
+     * @return empty if the path is not a KV version 2 data path, or the token may not read its metadata, or there is none
+     */
+    public OptionalLong getCurrentVersion(
+            final String secret)
+            throws Exception
+    {
+        final var metadataPath = toMetadataPath(secret);
+        if (metadataPath.isEmpty()) {
+            return OptionalLong.empty();
+        }
 
+        // the token may lack permission on the metadata only, which says nothing about whether it is still valid
+        final var call = new Call("kv2.metadata", "GET", URI.create("/v1/").resolve(metadataPath.get()).toString(), null, true, true, false);
+        final var response = Futures.await(sendAsync(call));
+        if (response.statusCode() == HttpURLConnection.HTTP_FORBIDDEN || response.statusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+            logger.info("Cannot read metadata of " + secret + ": HTTP " + response.statusCode());
+            return OptionalLong.empty();
+        }
         if (response.statusCode() != HttpURLConnection.HTTP_OK) {
-            throw new RuntimeException("Problem connecting to Vault: " + response.body());
-        }
-
-        final var gson = new GsonBuilder()
-                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-                .create();
-
-        // TODO: replace with JEP 441: Pattern Matching for switch in Java 21
-        final var vaultResponse = gson.fromJson(response.body(), VaultResponse.class);
-        if (credentialsRequest instanceof Request.StaticRequest) {
-            final var username = (String) vaultResponse.getData().get("username");
-            final var password = (String) vaultResponse.getData().get("password");
-            return new Response(username, password);
-        } else if (credentialsRequest instanceof Request.DynamicRequest) {
-            final var username = (String) vaultResponse.getData().get("username");
-            final var password = (String) vaultResponse.getData().get("password");
-            return new ResponseWithLease(username, password, vaultResponse.getLeaseId());
-        } else if (credentialsRequest instanceof Request.KV1Request kv1Request) {
-            final var username = (String) vaultResponse.getData().get(kv1Request.userKey());
-            final var password = (String) vaultResponse.getData().get(kv1Request.passKey());
-            return new Response(username, password);
-        } else if (credentialsRequest instanceof Request.KV2Request kv2Request) {
-            final var data = (Map<String, String>) vaultResponse.getData().get("data");
-            final var username = data.get(kv2Request.userKey());
-            final var password = data.get(kv2Request.passKey());
-            return new Response(username, password);
+            throw new VaultException(response.statusCode(), "Problem reading metadata of " + secret + ": " + response.bodyAsString());
+        }
+
+        final var data = gson.fromJson(response.bodyReader(), KV2MetadataResponse.class).getData();
+        if (data == null || data.getCurrentVersion() == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(data.getCurrentVersion());
+    }
+
+    private static Optional<String> toMetadataPath(String secret) {
+        final var path = secret.startsWith("/") ? secret.substring(1) : secret;
+        final var dataSegment = path.indexOf("/data/");
+        if (dataSegment < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(path.substring(0, dataSegment) + "/metadata/" + path.substring(dataSegment + "/data/".length()));
+    }
+
+    public Credentials getCredentials(
+            final String secret,
+            final Request credentialsRequest)
+            throws Exception
+    {
+        return Futures.await(getCredentialsAsync(secret, credentialsRequest));
+    }
+
+    public CompletableFuture<Credentials> getCredentialsAsync(
+            final String secret,
+            final Request credentialsRequest)
+    {
+        final var path = URI.create("/v1/").resolve(secret).toString();
+        // every read of a dynamic role creates new database credentials, KV secrets can be read from any node
+        final CompletableFuture<VaultHttpResponse> request;
+        if (credentialsRequest instanceof Request.KV1Request || credentialsRequest instanceof Request.KV2Request) {
+            request = sendHedgedAsync("secret", "GET", path, null);
         } else {
-            throw new IllegalStateException("Unknown request type: " + credentialsRequest.getClass().getName());
+            request = sendAsync("secret", "GET", path, null, true, !(credentialsRequest instanceof Request.DynamicRequest));
         }
+        return Futures.map(request, response -> {
+            if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                throw new VaultException(response.statusCode(), "Problem connecting to Vault: " + response.bodyAsString());
+            }
+
+            try {
+                return CredentialsReader.read(credentialsRequest, response.bodyReader());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Problem reading secret " + secret + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    record Response(String username, String password) implements Credentials {
+    }
+
+    record ResponseWithLease(String username, String password, String leaseId, Duration leaseDuration, boolean renewable)
+            implements Credentials, Lease {
+    }
+
+    record ResponseWithVersion(String username, String password, long version) implements Credentials, Versioned {
     }
 
-    private record Response(String username, String password) implements Credentials {
+    record ResponseWithRotation(String username, String password, Duration ttl, Duration rotationPeriod, Instant lastVaultRotation)
+            implements Credentials, Rotation {
     }
 
-    private record ResponseWithLease(String username, String password, String leaseId) implements Credentials, Lease {
+    private record LeaseStatus(String leaseId, Duration leaseDuration, boolean renewable) implements Lease {
     }
 
-    private HttpClient getClient(Optional<Path> certificate) throws Exception {
+    private VaultHttpResponse send(String endpoint, String method, String path, String body, boolean authenticated, boolean idempotent)
+            throws Exception
+    {
+        return Futures.await(sendAsync(endpoint, method, path, body, authenticated, idempotent));
+    }
 
-        var builder = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(10));
-        if (certificate.isPresent()) {
-            builder.sslContext(getSSLContext(certificate.get()));
+    /**
+     * Sends a request to the best node, paced by its rate limiter, and sends it again as allowed by
+     * {@link RetryPolicy}, to another node if there is one left that was not tried, until the client's timeout has
+     * passed. Cancelling the returned future aborts the exchange in progress and any further attempt.
+     *
+     * @param endpoint name under which the request is counted in {@link VaultMetrics}
+     * @param idempotent whether sending the request twice has the same effect as sending it once
+     */
+    private CompletableFuture<VaultHttpResponse> sendAsync(String endpoint, String method, String path, String body, boolean authenticated, boolean idempotent) {
+        return sendAsync(new Call(endpoint, method, path, body, authenticated, idempotent));
+    }
+
+    private CompletableFuture<VaultHttpResponse> sendAsync(Call call) {
+        final Call authorized;
+        try {
+            authorized = authorize(call.withDeadline(System.nanoTime() + timeout.toNanos()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
         }
-        return builder.build();
+        final var result = new CompletableFuture<VaultHttpResponse>();
+        attempt(authorized, result, 1, Duration.ZERO, null);
+        return result;
     }
 
-    private SSLContext getSSLContext(Path certificate) throws Exception {
+    /**
+     * Loads the Vault token once for all attempts of a call, unless every node's circuit breaker is open, so a
+     * failing Vault does not cause logins or token file reads.
+     */
+    private Call authorize(Call call) throws Exception {
+        if (!call.authenticated()) {
+            return call;
+        }
+        final var retryIn = nodes.stream()
+                .map(node -> node.circuitBreaker().retryIn())
+                .min(Duration::compareTo)
+                .orElseThrow();
+        if (!retryIn.isZero()) {
+            VaultMetrics.getInstance().counter("circuitBreaker.rejected").increment();
+            final var addresses = String.join(",", nodes.stream().map(Node::address).toList());
+            throw new VaultUnavailableException(
+                    "Vault at " + addresses + " is unavailable after repeated failures, retrying in " + Math.max(1, retryIn.toSeconds()) + "s",
+                    retryIn);
+        }
+        return call.withToken(vaultTokenLoader.get());
+    }
 
-        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+    /**
+     * Sends an authenticated read like {@link #sendAsync}, and when {@link Hedging} is enabled and the first node is
+     * slow to answer, sends it to a second node as well. The first response that is not a server error is used, and
+     * the other request is cancelled.
+     */
+    private CompletableFuture<VaultHttpResponse> sendHedgedAsync(String endpoint, String method, String path, String body) {
+        final var delay = Hedging.ENABLED && nodes.size() > 1 ? Hedging.delay(endpoint) : Optional.<Duration>empty();
+        if (delay.isEmpty()) {
+            return sendAsync(new Call(endpoint, method, path, body, true, true).asHedgeable());
+        }
+        Hedging.onRead();
 
-        try (InputStream is = new FileInputStream(certificate.toFile())) {
-            Certificate cert = cf.generateCertificate(is);
+        final Call call;
+        try {
+            call = authorize(new Call(endpoint, method, path, body, true, true).asHedgeable().withDeadline(System.nanoTime() + timeout.toNanos()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final var primary = new CompletableFuture<VaultHttpResponse>();
+        final var hedge = new AtomicReference<CompletableFuture<VaultHttpResponse>>();
+        final var result = new CompletableFuture<VaultHttpResponse>();
+        result.whenComplete((r, e) -> {
+            primary.cancel(true);
+            final var second = hedge.get();
+            if (second != null) {
+                second.cancel(true);
+            }
+        });
 
-            KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-            ks.load(null, null);
-            ks.setCertificateEntry("vault-cert", cert);
+        primary.whenComplete((response, error) -> complete(result, response, error, hedge.get()));
+        attempt(call, primary, 1, Duration.ZERO, null);
 
-            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-            tmf.init(ks);
+        CompletableFuture.delayedExecutor(delay.get().toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || call.tried().size() >= nodes.size() || !Hedging.tryAcquire()) {
+                return;
+            }
+            VaultMetrics.getInstance().counter("vault.hedges." + endpoint).increment();
+            final var second = new CompletableFuture<VaultHttpResponse>();
+            hedge.set(second);
+            if (result.isDone()) {
+                return;
+            }
+            second.whenComplete((response, error) -> {
+                if (complete(result, response, error, primary)) {
+                    VaultMetrics.getInstance().counter("vault.hedges." + endpoint + ".won").increment();
+                }
+            });
+            // the hedge goes to a node the primary request was not sent to
+            final Set<Node> tried = ConcurrentHashMap.newKeySet();
+            tried.addAll(call.tried());
+            attempt(call.withTried(tried), second, 1, Duration.ZERO, null);
+        });
+        return result;
+    }
 
-            SSLContext sslContext = SSLContext.getInstance("TLS");
-            sslContext.init(null, tmf.getTrustManagers(), new SecureRandom());
+    /**
+     * Completes {@code result} with a response that is not a server error, or with whatever arrives last.
+     *
+     * @return whether this outcome completed {@code result}
+     */
+    private static boolean complete(CompletableFuture<VaultHttpResponse> result, VaultHttpResponse response, Throwable error,
+            CompletableFuture<VaultHttpResponse> other)
+    {
+        final var usable = error == null && response.statusCode() < 500;
+        if (!usable && other != null && !other.isDone()) {
+            return false;
+        }
+        return error == null ? result.complete(response) : result.completeExceptionally(error);
+    }
+
+    /**
+     * @param invalidatesToken whether a 403 response means the Vault token is no longer valid
+     * @param hedgeable whether the request may be hedged, so its latency is timed by {@link Hedging}
+     * @param tried nodes the request was already sent to
+     * @param token Vault token sent with every attempt, null until {@link #authorize} loaded it
+     * @param deadline {@link System#nanoTime()} after which no attempt is started or waited for
+     */
+    private record Call(String endpoint, String method, String path, String body, boolean authenticated, boolean idempotent,
+            boolean invalidatesToken, boolean hedgeable, Set<Node> tried, String token, long deadline)
+    {
+
+        Call(String endpoint, String method, String path, String body, boolean authenticated, boolean idempotent) {
+            this(endpoint, method, path, body, authenticated, idempotent, authenticated);
+        }
+
+        Call(String endpoint, String method, String path, String body, boolean authenticated, boolean idempotent, boolean invalidatesToken) {
+            this(endpoint, method, path, body, authenticated, idempotent, invalidatesToken, false, ConcurrentHashMap.newKeySet(), null, 0);
+        }
+
+        Call withToken(String token) {
+            return new Call(endpoint, method, path, body, authenticated, idempotent, invalidatesToken, hedgeable, tried, token, deadline);
+        }
 
-            return sslContext;
+        Call withTried(Set<Node> tried) {
+            return new Call(endpoint, method, path, body, authenticated, idempotent, invalidatesToken, hedgeable, tried, token, deadline);
         }
+
+        Call withDeadline(long deadline) {
+            return new Call(endpoint, method, path, body, authenticated, idempotent, invalidatesToken, hedgeable, tried, token, deadline);
+        }
+
+        Call asHedgeable() {
+            return new Call(endpoint, method, path, body, authenticated, idempotent, invalidatesToken, true, tried, token, deadline);
+        }
+
+        Duration remaining() {
+            return Duration.ofNanos(deadline - System.nanoTime());
+        }
+    }
+
+    private Node choose(Call call) {
+        final var untried = nodes.stream().filter(node -> !call.tried().contains(node)).toList();
+        final var candidates = untried.isEmpty() ? nodes : untried;
+        final var best = NodeHealth.best(candidates.stream().map(Node::health).toList());
+        return candidates.stream().filter(node -> node.health() == best).findFirst().orElseThrow();
+    }
+
+    private void attempt(Call call, CompletableFuture<VaultHttpResponse> result, int attempt, Duration backoff, Node previous) {
+        final var node = choose(call);
+        if (previous != null && node != previous) {
+            VaultMetrics.getInstance().counter("vault.failovers").increment();
+        }
+        final var wait = node.rateLimiter().reserve();
+        if (wait.compareTo(call.remaining()) >= 0) {
+            node.rateLimiter().cancel();
+            result.completeExceptionally(new TimeoutException(
+                    "Vault at " + node.address() + " is rate limited for longer than the " + timeout.toMillis() + "ms request timeout"));
+        } else if (wait.isZero()) {
+            send(call, result, attempt, backoff, node);
+        } else {
+            CompletableFuture.delayedExecutor(wait.toNanos(), TimeUnit.NANOSECONDS).execute(() -> send(call, result, attempt, backoff, node));
+        }
+    }
+
+    private void send(Call call, CompletableFuture<VaultHttpResponse> result, int attempt, Duration backoff, Node node) {
+        if (result.isDone()) {
+            node.rateLimiter().cancel();
+            return;
+        }
+        if (call.remaining().isNegative() || call.remaining().isZero()) {
+            node.rateLimiter().cancel();
+            result.completeExceptionally(new TimeoutException("Vault request timed out after " + timeout.toMillis() + "ms"));
+            return;
+        }
+        call.tried().add(node);
+        final var exchange = exchange(node, call);
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        exchange.whenComplete((response, error) -> {
+            if (response != null && response.statusCode() == RetryPolicy.TOO_MANY_REQUESTS) {
+                node.rateLimiter().onThrottled();
+            } else if (response != null) {
+                node.rateLimiter().onAccepted();
+            }
+            if (result.isDone()) {
+                return;
+            }
+            final var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            final var untriedLeft = call.tried().size() < nodes.size();
+            if (cause instanceof VaultUnavailableException && untriedLeft) {
+                // this node's circuit breaker is open, go straight to the next one
+                attempt(call, result, attempt, backoff, node);
+            } else if (attempt < RetryPolicy.MAX_ATTEMPTS + nodes.size() - 1 && RetryPolicy.isRetryable(response, error, call.idempotent())) {
+                final var next = untriedLeft ? Duration.ZERO : RetryPolicy.backoff(backoff, response);
+                if (next.compareTo(call.remaining()) >= 0) {
+                    // no time left to send it again, give up with this outcome
+                    finish(result, response, cause);
+                    return;
+                }
+                VaultMetrics.getInstance().counter("vault.retries." + call.endpoint()).increment();
+                CompletableFuture.delayedExecutor(next.toNanos(), TimeUnit.NANOSECONDS).execute(() -> attempt(call, result, attempt + 1, next, node));
+            } else {
+                finish(result, response, cause);
+            }
+        });
+    }
+
+    private static void finish(CompletableFuture<VaultHttpResponse> result, VaultHttpResponse response, Throwable error) {
+        if (error != null) {
+            result.completeExceptionally(error);
+        } else {
+            result.complete(response);
+        }
+    }
+
+    /**
+     * A single exchange with a Vault node, unless its circuit breaker is open.
+     */
+    private CompletableFuture<VaultHttpResponse> exchange(Node node, Call call) {
+        final var endpoint = call.endpoint();
+        final var method = call.method();
+        final var path = call.path();
+        final var body = call.body();
+        final var circuitBreaker = node.circuitBreaker();
+        if (!circuitBreaker.tryAcquire()) {
+            node.rateLimiter().cancel();
+            VaultMetrics.getInstance().counter("circuitBreaker.rejected").increment();
+            final var retryIn = circuitBreaker.retryIn();
+            return CompletableFuture.failedFuture(new VaultUnavailableException(
+                    "Vault at " + node.address() + " is unavailable after repeated failures, retrying in " + Math.max(1, retryIn.toSeconds()) + "s",
+                    retryIn));
+        }
+
+        final Map<String, String> headers = new HashMap<>();
+        if (call.authenticated()) {
+            headers.put(X_VAULT_TOKEN, call.token());
+        }
+        namespace.ifPresent(s -> headers.put(X_VAULT_NAMESPACE, s));
+
+        final var event = new VaultRequestEvent();
+        event.begin();
+        final var remaining = call.remaining();
+        final var exchangeTimeout = remaining.compareTo(attemptTimeout) < 0 ? remaining : attemptTimeout;
+        final var start = System.nanoTime();
+        final var future = node.transport().sendAsync(new VaultHttpRequest(method, path, headers, body, call.idempotent()), exchangeTimeout);
+        future.whenComplete((response, error) -> {
+            final var elapsed = Duration.ofNanos(System.nanoTime() - start);
+            final var cancelled = error instanceof CancellationException
+                    || error instanceof CompletionException && error.getCause() instanceof CancellationException;
+            if (cancelled) {
+                circuitBreaker.onIgnored();
+            } else {
+                final var failed = error != null || response.statusCode() >= 500;
+                circuitBreaker.onResult(failed, elapsed);
+                if (failed) {
+                    node.health().recordFailure();
+                } else {
+                    node.health().recordSuccess(elapsed);
+                }
+                if (Hedging.ENABLED && call.hedgeable() && response != null && response.statusCode() < 300) {
+                    Hedging.onSuccess(endpoint, elapsed);
+                }
+            }
+            VaultMetrics.getInstance().recordRequest(endpoint,
+                    response != null ? String.valueOf(response.statusCode()) : cancelled ? "cancelled" : "error",
+                    elapsed);
+            event.end();
+            if (event.shouldCommit()) {
+                event.endpoint = endpoint;
+                event.method = method;
+                event.path = path;
+                event.requestBytes = body == null ? 0 : body.length();
+                if (response != null) {
+                    event.status = response.statusCode();
+                    event.responseBytes = response.body().length;
+                } else {
+                    event.error = error.toString();
+                }
+                event.commit();
+            }
+        });
+
+        return Futures.map(future, response -> {
+            if (call.invalidatesToken() && response.statusCode() == HttpURLConnection.HTTP_FORBIDDEN) {
+                logger.info("Vault token rejected, it will be loaded again on the next request");
+                vaultTokenLoader.invalidate();
+            }
+            return response;
+        });
     }
 }
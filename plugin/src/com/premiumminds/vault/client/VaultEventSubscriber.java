@@ -0,0 +1,243 @@
+package com.premiumminds.vault.client;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.net.http.WebSocketHandshakeException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listens to the Vault event stream ({@code sys/events/subscribe}) for writes and deletes of KV secrets, and passes
+ * the path of each changed secret to a listener. Lost connections are reopened with exponential backoff, to the
+ * healthiest node of a multi-node address, and the listener is told that events may have been missed meanwhile.
+ * Servers without event support are given up on, and the listener is told so it can poll for changes instead.
+ */
+public class VaultEventSubscriber implements AutoCloseable {
+
+    private static final ILog logger = Platform.getLog(VaultEventSubscriber.class);
+
+    private static final String EVENT_TYPES = "kv*";
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        final var thread = new Thread(r, "Vault events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<String> nodes;
+    private final Optional<Path> certificate;
+    private final Optional<String> namespace;
+    private final VaultTokenLoader vaultTokenLoader;
+    private final EventListener listener;
+
+    private Duration backoff = MIN_BACKOFF;
+    private volatile WebSocket webSocket;
+    private volatile boolean closed;
+    private volatile boolean missedEvents;
+
+    public interface EventListener {
+
+        /**
+         * @param path path of a KV secret that was written or deleted
+         */
+        void secretChanged(String path);
+
+        /**
+         * Called after the subscription was reopened, as secrets may have changed while it was down.
+         */
+        void eventsMissed();
+
+        /**
+         * Called once if Vault does not support event subscriptions, no events will be delivered.
+         */
+        void eventsUnavailable();
+    }
+
+    public VaultEventSubscriber(String address, Path certificate, String namespace, VaultTokenLoader vaultTokenLoader, EventListener listener) {
+        this.nodes = VaultAddresses.parse(address).stream()
+                .filter(node -> !UnixSocketTransport.isUnixAddress(node))
+                .toList();
+        this.certificate = Optional.ofNullable(certificate);
+        this.namespace = Optional.ofNullable(namespace);
+        this.vaultTokenLoader = vaultTokenLoader;
+        this.listener = listener;
+    }
+
+    public static boolean isSupported(String address) {
+        return VaultAddresses.parse(address).stream().anyMatch(node -> !UnixSocketTransport.isUnixAddress(node));
+    }
+
+    public void start() {
+        scheduler.execute(this::connect);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        final var current = webSocket;
+        if (current != null) {
+            current.sendClose(WebSocket.NORMAL_CLOSURE, "");
+        }
+    }
+
+    private void connect() {
+        if (closed) {
+            return;
+        }
+        final var address = NodeHealth.best(nodes.stream().map(NodeHealth::forAddress).toList()).getAddress();
+        final CompletableFuture<WebSocket> connecting;
+        try {
+            final var httpClient = HttpClientRegistry.get(address, certificate, HttpClient.Version.HTTP_1_1);
+            final var builder = httpClient.newWebSocketBuilder()
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .header("X-Vault-Token", vaultTokenLoader.get());
+            namespace.ifPresent(s -> builder.header("X-Vault-Namespace", s));
+            connecting = builder.buildAsync(subscribeUri(address), new SocketListener());
+        } catch (Exception e) {
+            reconnectLater("Problem subscribing to Vault events: " + e.getMessage());
+            return;
+        }
+
+        connecting.whenComplete((ws, error) -> {
+            if (error == null) {
+                webSocket = ws;
+                if (closed) {
+                    // closed while connecting
+                    ws.sendClose(WebSocket.NORMAL_CLOSURE, "");
+                    return;
+                }
+                logger.info("Subscribed to Vault events on " + address);
+                if (missedEvents) {
+                    missedEvents = false;
+                    listener.eventsMissed();
+                }
+                synchronized (this) {
+                    backoff = MIN_BACKOFF;
+                }
+                return;
+            }
+            final var cause = error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof WebSocketHandshakeException handshake) {
+                final var status = handshake.getResponse().statusCode();
+                if (status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_BAD_METHOD) {
+                    logger.info("Vault at " + address + " does not support event subscriptions, polling cached secrets for changes instead");
+                    listener.eventsUnavailable();
+                    return;
+                }
+                if (status == HttpURLConnection.HTTP_FORBIDDEN) {
+                    vaultTokenLoader.invalidate();
+                }
+                reconnectLater("Vault rejected the event subscription with HTTP " + status);
+            } else {
+                reconnectLater("Problem subscribing to Vault events: " + cause.getMessage());
+            }
+        });
+    }
+
+    private static URI subscribeUri(String address) {
+        final var base = URI.create(address.endsWith("/") ? address : address + "/");
+        final var scheme = "https".equalsIgnoreCase(base.getScheme()) ? "wss" : "ws";
+        return URI.create(scheme + "://" + base.getRawAuthority() + base.getRawPath() + "v1/sys/events/subscribe/" + EVENT_TYPES + "?json=true");
+    }
+
+    private void reconnectLater(String reason) {
+        webSocket = null;
+        missedEvents = true;
+        if (closed) {
+            return;
+        }
+        final Duration delay;
+        synchronized (this) {
+            delay = backoff.plusMillis(ThreadLocalRandom.current().nextLong(backoff.toMillis() / 2 + 1));
+            backoff = backoff.multipliedBy(2).compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff.multipliedBy(2);
+        }
+        logger.info(reason + ", retrying in " + delay.toSeconds() + "s");
+        scheduler.schedule(this::connect, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void onEvent(String message) {
+        final String path;
+        try {
+            path = changedPath(JsonParser.parseString(message));
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable Vault event: " + e.getMessage());
+            return;
+        }
+        if (path != null) {
+            listener.secretChanged(path);
+        }
+    }
+
+    /**
+     * @return the {@code data_path} of the event metadata, falling back to its {@code path}
+     */
+    private static String changedPath(JsonElement event) {
+        final var metadata = child(child(child(event, "data"), "event"), "metadata");
+        if (metadata == null) {
+            return null;
+        }
+        for (final var name : new String[]{"data_path", "path"}) {
+            final var value = metadata.get(name);
+            if (value != null && value.isJsonPrimitive()) {
+                return value.getAsString();
+            }
+        }
+        return null;
+    }
+
+    private static JsonObject child(JsonElement element, String name) {
+        if (element == null || !element.isJsonObject()) {
+            return null;
+        }
+        final var child = element.getAsJsonObject().get(name);
+        return child != null && child.isJsonObject() ? child.getAsJsonObject() : null;
+    }
+
+    private class SocketListener implements WebSocket.Listener {
+
+        private final StringBuilder message = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            message.append(data);
+            if (last) {
+                final var text = message.toString();
+                message.setLength(0);
+                onEvent(text);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            reconnectLater("Vault closed the event subscription (" + statusCode + " " + reason + ")");
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            reconnectLater("Vault event subscription failed: " + error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.premiumminds.vault.client;
+
+import java.util.Map;
+
+/**
+ * @param path absolute path of the request, starting with {@code /v1/}
+ * @param body request body, or null when there is none
+ * @param idempotent whether sending the request twice has the same effect as sending it once
+ */
+record VaultHttpRequest(String method, String path, Map<String, String> headers, String body, boolean idempotent) {
+}
@@ -0,0 +1,28 @@
+package com.premiumminds.vault.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * @param headers response headers, with lower case names
+ * @param body raw response body, decoded only by whoever reads it
+ */
+record VaultHttpResponse(int statusCode, Map<String, List<String>> headers, byte[] body) {
+
+    Optional<String> header(String name) {
+        return Optional.ofNullable(headers.get(name.toLowerCase())).flatMap(values -> values.stream().findFirst());
+    }
+
+    Reader bodyReader() {
+        return new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8);
+    }
+
+    String bodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.premiumminds.vault.client;
+
+import org.eclipse.core.runtime.ILog;
+import org.eclipse.core.runtime.Platform;
+
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Counters and latency histograms of the plugin, shared by all data sources and exposed through JMX.
+ */
+public final class VaultMetrics implements VaultMetricsMXBean {
+
+    private static final ILog logger = Platform.getLog(VaultMetrics.class);
+
+    static final String OBJECT_NAME = "com.premiumminds.dbeaver.vault:type=Metrics";
+
+    private static final VaultMetrics INSTANCE = new VaultMetrics();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private VaultMetrics() {
+    }
+
+    public static VaultMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    static {
+        try {
+            final var server = ManagementFactory.getPlatformMBeanServer();
+            final var name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                // left behind by a previous instance of the bundle
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(INSTANCE, name);
+        } catch (Exception e) {
+            logger.warn("Problem registering Vault metrics in JMX: " + e.getMessage(), e);
+        }
+    }
+
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    public LatencyHistogram latency(String name) {
+        return latencies.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    void recordRequest(String endpoint, String status, Duration latency) {
+        counter("vault.requests." + endpoint + "." + status).increment();
+        latency("vault." + endpoint).record(latency);
+    }
+
+    public SortedMap<String, LatencyHistogram> getLatencies() {
+        return new TreeMap<>(latencies);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        final Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyCounts() {
+        return snapshot(LatencyHistogram::count);
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMeanMillis() {
+        return snapshot(h -> millis(h.mean()));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP50Millis() {
+        return snapshot(h -> millis(h.percentile(50)));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Millis() {
+        return snapshot(h -> millis(h.percentile(99)));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMaxMillis() {
+        return snapshot(h -> millis(h.max()));
+    }
+
+    private <T> Map<String, T> snapshot(Function<LatencyHistogram, T> value) {
+        final Map<String, T> snapshot = new TreeMap<>();
+        latencies.forEach((name, histogram) -> snapshot.put(name, value.apply(histogram)));
+        return snapshot;
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
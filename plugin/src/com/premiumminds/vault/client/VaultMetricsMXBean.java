@@ -0,0 +1,21 @@
+package com.premiumminds.vault.client;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link VaultMetrics}, registered as {@value VaultMetrics#OBJECT_NAME}.
+ */
+public interface VaultMetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getLatencyCounts();
+
+    Map<String, Double> getLatencyMeanMillis();
+
+    Map<String, Double> getLatencyP50Millis();
+
+    Map<String, Double> getLatencyP99Millis();
+
+    Map<String, Double> getLatencyMaxMillis();
+}
@@ -0,0 +1,41 @@
+package com.premiumminds.vault.client;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one HTTP exchange with Vault, from sending the request until the whole response has been read.
+ */
+@Name("com.premiumminds.vault.Request")
+@Label("Vault Request")
+@Category("Vault")
+@Description("HTTP exchange with Vault")
+final class VaultRequestEvent extends jdk.jfr.Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    @Description("HTTP status, or 0 if no response was received")
+    int status;
+
+    @Label("Request Bytes")
+    @DataAmount
+    long requestBytes;
+
+    @Label("Response Bytes")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Error")
+    String error;
+}
@@ -4,6 +4,7 @@ public interface VaultTokenLoader {
 
     String get() throws Exception;
 
-}
-
+    default void invalidate() {
+    }
 
+}
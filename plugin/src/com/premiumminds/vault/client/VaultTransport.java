@@ -0,0 +1,22 @@
+package com.premiumminds.vault.client;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+interface VaultTransport {
+
+    static VaultTransport forAddress(String address, Optional<Path> certificate) {
+        if (UnixSocketTransport.isUnixAddress(address)) {
+            return UnixSocketTransport.forAddress(address);
+        }
+        return new HttpClientTransport(address, certificate);
+    }
+
+    /**
+     * @param timeout deadline for the whole exchange; cancelling the returned future aborts it
+     */
+    CompletableFuture<VaultHttpResponse> sendAsync(VaultHttpRequest request, Duration timeout);
+
+}
@@ -0,0 +1,22 @@
+package com.premiumminds.vault.client;
+
+import java.time.Duration;
+
+/**
+ * Thrown without contacting Vault while its circuit breaker is open.
+ */
+public class VaultUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryIn;
+
+    public VaultUnavailableException(String message, Duration retryIn) {
+        super(message);
+        this.retryIn = retryIn;
+    }
+
+    public Duration getRetryIn() {
+        return retryIn;
+    }
+}
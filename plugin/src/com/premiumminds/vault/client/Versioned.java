@@ -0,0 +1,8 @@
+package com.premiumminds.vault.client;
+
+/**
+ * Credentials read from a specific version of a KV version 2 secret.
+ */
+public interface Versioned {
+    long version();
+}